@@ -45,6 +45,15 @@ public class Algo {
 	/** skip strategy */
 	private static final boolean SKIP_STRATEGY = false;
 
+	/** prune an extension whose number of distinct images of a vertex is below minsup, before creating its occurrences */
+	private static final boolean IMAGE_COUNT_PRUNING = true;
+
+	/** prune an extension having a vertex with fewer than minsup distinct images, counting at most minsup images per vertex, before creating its occurrences */
+	private static final boolean IMAGE_THRESHOLD_PRUNING = true;
+
+	/** check cheap upper bounds of the support (number of occurrences, then MNI) before calculating an expensive support */
+	private static final boolean TIERED_SUPPORT = true;
+
 	/** infrequent edges removed */
 	int infrequentVertexPairsRemoved;
 
@@ -63,6 +72,27 @@ public class Algo {
 	/** skip strategy count */
 	int skipStrategyCount;
 
+	/** extensions removed by image count pruning */
+	int pruneByImageCountCount;
+
+	/** extensions removed by image threshold pruning */
+	int pruneByImageThresholdCount;
+
+	/** candidates rejected because they have fewer occurrences than minsup */
+	int eliminatedByCountCount;
+
+	/** candidates rejected because their MNI support is below minsup */
+	int eliminatedByMNICount;
+
+	/** candidates whose support was calculated with the chosen measure after passing the bounds */
+	int expensiveSupportCount;
+
+	/** the maximum time of an exact support calculation, in milliseconds */
+	long exactTimeBudget = 1000;
+
+	/** exact support calculations that exceeded the time budget */
+	int exactTimeoutCount;
+
 	/** maximum number of edges in each frequent subgraph */
 	int maxNumberOfEdges = Integer.MAX_VALUE;
 
@@ -74,10 +104,47 @@ public class Algo {
 
 	boolean getHypertree = false;
 
+	/**
+	 * if true, the hypertree of a pattern is extended from the hypertree of its parent
+	 * instead of being built from scratch (see HypergraphPrim.extendHypertree())
+	 */
+	boolean incrementalHypertree = false;
+
+	/** the distinct images of a vertex of a pattern, reused by the calculations of support */
+	private VertexBitSet images = new VertexBitSet(0);
+
+	/** the vertices reached by a hypertree, reused by the incremental hypertrees */
+	private VertexBitSet hypertreeVertices = new VertexBitSet(0);
+
+	/** if true, the hypertrees are drawn from generators seeded by hypertreeSeed */
+	boolean hypertreeSeeded = false;
+
+	/** the seed of the hypertrees, if hypertreeSeeded is true */
+	long hypertreeSeed;
+
+	/** the number of hypertrees sampled for each candidate */
+	int hypertreeSampleCount = 1;
+
+	/** how the supports of the sampled hypertrees are combined: "min", "max" or "mean" */
+	String hypertreeCombination = "min";
+
+	/** candidates whose support was calculated on sampled hypertrees */
+	int hypertreeCandidateCount;
+
+	/** the sum, over these candidates, of the variance of the supports of their samples */
+	double hypertreeVarianceSum;
+
+	/** the largest variance of the supports of the samples of a candidate */
+	double hypertreeMaxVariance;
+
+	/** the time spent sampling hypertrees and calculating their supports, in nanoseconds */
+	long hypertreeTime;
+
 	/**
 	 * Run the GSpan algorithm
 	 * 
-	 * @param inPath               the input file
+	 * @param inPath               the input file (a .lg file, or a binary graph
+	 *                             file created by BinaryGraphFile)
 	 * @param outPath              the output file
 	 * @param minSupport           a minimum support value (a percentage represented
 	 *                             by a value between 0 and 1)
@@ -88,11 +155,10 @@ public class Algo {
 	 * @param maxNumberOfEdges     an integer indicating a maximum number of edges
 	 *                             for each frequent subgraph
 	 * @throws IOException            if error while writing to file
-	 * @throws ClassNotFoundException
 	 */
 	public void runAlgorithm(String inPath, String outPath, int minSupport, String chooseSup, boolean outputSingleVertices,
 			boolean outputDotFile, int maxNumberOfEdges, boolean getHypertree)
-			throws IOException, ClassNotFoundException {
+			throws IOException {
 
 		// Calculate the minimum support as a number of graphs
 		minSup = minSupport;
@@ -115,6 +181,16 @@ public class Algo {
 		edgeRemovedByLabel = 0;
 		eliminatedWithMaxSize = 0;
 		pruneByEdgeCountCount = 0;
+		pruneByImageCountCount = 0;
+		pruneByImageThresholdCount = 0;
+		exactTimeoutCount = 0;
+		eliminatedByCountCount = 0;
+		eliminatedByMNICount = 0;
+		expensiveSupportCount = 0;
+		hypertreeCandidateCount = 0;
+		hypertreeVarianceSum = 0;
+		hypertreeMaxVariance = 0;
+		hypertreeTime = 0;
 
 		// initialize structure to store results
 		frequentSubgraphs = new ArrayList<FrequentSubgraph>();
@@ -129,7 +205,16 @@ public class Algo {
 		Long t1 = System.currentTimeMillis();
 
 		// read graphs
-		Graph graphDB = readGraphs(inPath);
+		CSRGraph graphDB;
+		if (inPath.endsWith(BinaryGraphFile.EXTENSION)) {
+			graphDB = BinaryGraphFile.read(inPath);
+		} else {
+			graphDB = readGraphs(inPath);
+		}
+		images = new VertexBitSet(graphDB.getIdCount());
+		if (getHypertree && incrementalHypertree) {
+			hypertreeVertices = new VertexBitSet(graphDB.getIdCount());
+		}
 
 		// mining
 		gSpan(graphDB, outputSingleVertices);
@@ -210,9 +295,7 @@ public class Algo {
 			// We output it
 			if (outputsubGraph) {
 //				sb.append("x");
-//				for (HyperEdge he : subgraph.hyperEdges) {
-//					sb.append(" ").append(he.toString());
-//				}
+//				sb.append(" ").append(subgraph.occurrences.toString());
 			}
 			sb.append(System.lineSeparator()).append(System.lineSeparator());
 
@@ -227,136 +310,117 @@ public class Algo {
 	 * Read graph from the input file
 	 * 
 	 * @param path the input file
-	 * @return a list of input graph from the input graph database
+	 * @return the input graph, in CSR form (the file must contain a single graph)
 	 * @throws IOException if error reading or writing to file
 	 */
-	private Graph readGraphs(String path) throws IOException {
+	static CSRGraph readGraphs(String path) throws IOException {
 		if (DEBUG_MODE) {
 			System.out.println("start reading graphs...");
 		}
-		BufferedReader br = new BufferedReader(new FileReader(new File(path)));
-		Graph graphDatabase = null;
-
-		String line = br.readLine();
-		Boolean hasNextGraph = (line != null) && line.startsWith("t");
-
-		// For each graph of the graph database
-		while (hasNextGraph) {
-			hasNextGraph = false;
-			int gId = Integer.parseInt(line.split(" ")[2]);
-			Map<Integer, Vertex> vMap = new HashMap<>();
-			while ((line = br.readLine()) != null && !line.startsWith("t")) {
-
-				String[] items = line.split(" ");
-
-				if (line.startsWith("v")) {
-					// If it is a vertex
-					int vId = Integer.parseInt(items[1]);
-					int vLabel = Integer.parseInt(items[2]);
-					vMap.put(vId, new Vertex(vId, vLabel));
-				} else if (line.startsWith("e")) {
-					// If it is an edge
-					int v1 = Integer.parseInt(items[1]);
-					int v2 = Integer.parseInt(items[2]);
-					Double tempeLabel = Double.parseDouble(items[3]);
-					Integer eLabel = tempeLabel.intValue();
-					Edge e = new Edge(v1, v2, eLabel);
-//                    System.out.println(v1 + " " + v2 + " " + vMap.get(v1).id + " " + vMap.get(v2).id);
-					vMap.get(v1).addEdge(e);
-					vMap.get(v2).addEdge(e);
-				}
-			}
-			graphDatabase = new Graph(gId, vMap);
-			if (line != null) {
-				hasNextGraph = true;
-			}
-		}
-
-
-		br.close();
 
-//		graphCount = graphDatabase.size();
-		return graphDatabase;
+		// the lines of the file are parsed on all cores
+		return ParallelLgReader.read(path);
 	}
 
 	/**
-	 * Find all isomorphisms between graph described by c and graph g each
-	 * isomorphism is represented by a map
+	 * Find all isomorphisms between graph described by c and graph g. Each
+	 * isomorphism can be read as an array, where the vertex of g corresponding
+	 * to the i-th vertex of c is at position i
 	 * 
 	 * @param c a dfs code representing a subgraph
 	 * @param g a graph
 	 * @return the list of all isomorphisms
 	 */
-	private List<Map<Integer, Integer>> subgraphIsomorphisms(DFSCode c, Graph g) {
-
-		List<Map<Integer, Integer>> isoms = new ArrayList<>();
+	private EmbeddingList subgraphIsomorphisms(DFSCode c, CSRGraph g) {
 
 		// initial isomorphisms by finding all vertices with same label as vertex 0 in C
 		int startLabel = c.getEeL().get(0).getvLabel1(); // only non-empty DFSCode will be real parameter
-		for (int vID : g.findAllWithLabel(startLabel)) {
-			Map<Integer, Integer> map = new HashMap<>();
-			map.put(0, vID);
-			isoms.add(map);
-		}
+		EmbeddingList isoms = new EmbeddingList(g.findAllWithLabel(startLabel));
 
 		// each extended edge will update partial isomorphisms
-		// for forward edge, each isomorphism will be either extended or discarded
-		// for backward edge, each isomorphism will be either unchanged or discarded
 		for (ExtendedEdge ee : c.getEeL()) {
-			int v1 = ee.getV1();
-			int v2 = ee.getV2();
-			int v2Label = ee.getvLabel2();
-			int eLabel = ee.getEdgeLabel();
-
-			List<Map<Integer, Integer>> updateIsoms = new ArrayList<>();
-			// For each isomorphism
-			for (Map<Integer, Integer> iso : isoms) {
-
-				// Get the vertex corresponding to v1 in the current edge
-				int mappedV1 = iso.get(v1);
-
-				// If it is a forward edge extension
-				if (v1 < v2) {
-					Collection<Integer> mappedVertices = iso.values();
-
-					// For each neighbor of the vertex corresponding to V1
-					for (Vertex mappedV2 : g.getAllNeighbors(mappedV1)) {
+			isoms = extendIsomorphisms(isoms, ee, g);
+		}
 
-						// If the neighbor has the same label as V2 and is not already mapped and the
-						// edge label is
-						// the same as that between v1 and v2.
-						if (v2Label == mappedV2.getLabel() && (!mappedVertices.contains(mappedV2.getId()))
-								&& eLabel == g.getEdgeLabel(mappedV1, mappedV2.getId())) {
+		// Return the isomorphisms
+		return isoms;
+	}
 
-							// TODO: PHILIPPE: getEdgeLabel() in the above line could be precalculated in
-							// Graph.java ...
+	/**
+	 * Extend the isomorphisms of a DFS code to the isomorphisms of this DFS code followed by
+	 * an extended edge. For a forward edge, each isomorphism will be either extended or
+	 * discarded. For a backward edge, each isomorphism will be either unchanged or discarded.
+	 * 
+	 * @param isoms the isomorphisms of a DFS code
+	 * @param ee    an extended edge
+	 * @param g     a graph
+	 * @return the isomorphisms of the extended DFS code, in the order of subgraphIsomorphisms()
+	 */
+	private EmbeddingList extendIsomorphisms(EmbeddingList isoms, ExtendedEdge ee, CSRGraph g) {
+		int v1 = ee.getV1();
+		int v2 = ee.getV2();
+		int v2Label = ee.getvLabel2();
+		int eLabel = ee.getEdgeLabel();
+
+		// only the new vertex of each isomorphism is stored, with the position of the isomorphism it extends
+		EmbeddingList updateIsoms = new EmbeddingList(isoms, v1 < v2);
+		int[] iso = new int[isoms.getVertexCount()];
+		// For each isomorphism
+		for (int index = 0; index < isoms.size(); index++) {
+			isoms.get(index, iso);
+
+			// Get the vertex corresponding to v1 in the current edge
+			int mappedV1 = iso[v1];
+
+			// If it is a forward edge extension (v2 is the next vertex of the DFS code)
+			if (v1 < v2) {
+				// Only the neighbors having the same label as V2, through an edge having the same
+				// label as that between v1 and v2, are candidates
+				int group = g.findLabelGroup(mappedV1, v2Label, eLabel);
+				if (group < 0) {
+					continue;
+				}
 
-							// because there may exist multiple extensions, need to copy original partial
-							// isomorphism
-							HashMap<Integer, Integer> tempM = new HashMap<>(iso.size() + 1);
-							tempM.putAll(iso);
-							tempM.put(v2, mappedV2.getId());
+				// For each such neighbor of the vertex corresponding to V1
+				for (int i = g.groupStarts[group]; i < g.groupStarts[group + 1]; i++) {
+					int mappedV2 = g.groupedTargets[i];
 
-							updateIsoms.add(tempM);
-						}
-					}
-				} else {
-					// If it is a backward edge extension
-					// v2 has been visited, only require mappedV1 and mappedV2 are connected in g
-					int mappedV2 = iso.get(v2);
-					if (g.isNeighboring(mappedV1, mappedV2) && eLabel == g.getEdgeLabel(mappedV1, mappedV2)) {
-						updateIsoms.add(iso);
+					// If the neighbor is not already mapped
+					if (indexOf(iso, mappedV2) < 0) {
+						updateIsoms.add(index, mappedV2);
 					}
 				}
+			} else {
+				// If it is a backward edge extension
+				// v2 has been visited, only require mappedV1 and mappedV2 are connected in g
+				// by an edge with the label of the extension (among parallel edges, if any)
+				int mappedV2 = iso[v2];
+				if (g.indexOfEdge(mappedV1, mappedV2, eLabel) >= 0) {
+					updateIsoms.add(index);
+				}
 			}
-			isoms = updateIsoms;
 		}
+		return updateIsoms;
+	}
 
-		// Return the isomorphisms
-		return isoms;
+	/**
+	 * Find the vertex of a DFS code that an isomorphism maps to a vertex of the graph.
+	 * An isomorphism maps only a few vertices, so a scan is faster than any map.
+	 * 
+	 * @param isom an isomorphism
+	 * @param x    a vertex of the graph
+	 * @return the vertex of the DFS code, or -1 if x is not mapped
+	 */
+	private static int indexOf(int[] isom, int x) {
+		for (int i = 0; i < isom.length; i++) {
+			if (isom[i] == x) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
-	private Map<ExtendedEdge, Set<Integer>> rightMostPathExtensionsFromSingle(DFSCode c, Graph g) {
+	private Map<ExtendedEdge, Set<Integer>> rightMostPathExtensionsFromSingle(DFSCode c, CSRGraph g) {
 		int gid = g.getId();
 
 		// Map of extended edges to graph ids
@@ -366,15 +430,16 @@ public class Algo {
 			// IF WE HAVE AN EMPTY SUBGRAPH THAT WE WANT TO EXTEND
 
 			// find all distinct label tuples
-			for (Vertex vertex : g.vertices) {
-				for (Edge e : vertex.getEdgeList()) {
-					int v1L = g.getVLabel(e.v1);
-					int v2L = g.getVLabel(e.v2);
+			for (int v1 = 0; v1 < g.getIdCount(); v1++) {
+				for (int i = g.offsets[v1]; i < g.offsets[v1 + 1]; i++) {
+					int v2 = g.targets[i];
+					int v1L = g.vertexLabels[v1];
+					int v2L = g.vertexLabels[v2];
 					ExtendedEdge ee1;
 					if (v1L < v2L) {
-						ee1 = new ExtendedEdge(0, 1, v1L, v2L, e.getEdgeLabel());
+						ee1 = new ExtendedEdge(0, 1, v1L, v2L, g.edgeLabels[i]);
 					} else {
-						ee1 = new ExtendedEdge(0, 1, v2L, v1L, e.getEdgeLabel());
+						ee1 = new ExtendedEdge(0, 1, v2L, v1L, g.edgeLabels[i]);
 					}
 
 					// Update the set of graph ids for this pattern
@@ -391,41 +456,40 @@ public class Algo {
 			int rightMost = c.getRightMost();
 
 			// Find all isomorphisms of the DFS code "c" in graph "g"
-			List<Map<Integer, Integer>> isoms = subgraphIsomorphisms(c, g);
+			EmbeddingList isoms = subgraphIsomorphisms(c, g);
 
 			// For each isomorphism
-			for (Map<Integer, Integer> isom : isoms) {
+			int[] isom = new int[isoms.getVertexCount()];
+			for (int index = 0; index < isoms.size(); index++) {
+				isoms.get(index, isom);
 
 				// backward extensions from rightmost child
-				Map<Integer, Integer> invertedISOM = new HashMap<>();
-				for (Entry<Integer, Integer> entry : isom.entrySet()) {
-					invertedISOM.put(entry.getValue(), entry.getKey());
-				}
-				int mappedRM = isom.get(rightMost);
+				int mappedRM = isom[rightMost];
 				int mappedRMlabel = g.getVLabel(mappedRM);
-				for (Vertex x : g.getAllNeighbors(mappedRM)) {
-					Integer invertedX = invertedISOM.get(x.getId());
-					if (invertedX != null && c.onRightMostPath(invertedX) && c.notPreOfRM(invertedX)
+				for (int i = g.offsets[mappedRM]; i < g.offsets[mappedRM + 1]; i++) {
+					int x = g.targets[i];
+					int invertedX = indexOf(isom, x);
+					if (invertedX >= 0 && c.onRightMostPath(invertedX) && c.notPreOfRM(invertedX)
 							&& !c.containEdge(rightMost, invertedX)) {
 						// rightmost and invertedX both have correspondings in g, so label of vertices
 						// and edge all
 						// can be found by correspondings
-						ExtendedEdge ee = new ExtendedEdge(rightMost, invertedX, mappedRMlabel, x.getLabel(),
-								g.getEdgeLabel(mappedRM, x.getId()));
+						ExtendedEdge ee = new ExtendedEdge(rightMost, invertedX, mappedRMlabel, g.vertexLabels[x],
+								g.edgeLabels[i]);
 						if (extensions.get(ee) == null)
 							extensions.put(ee, new HashSet<>());
 						extensions.get(ee).add(g.getId());
 					}
 				}
 				// forward extensions from nodes on rightmost path
-				Collection<Integer> mappedVertices = isom.values();
 				for (int v : c.getRightMostPath()) {
-					int mappedV = isom.get(v);
+					int mappedV = isom[v];
 					int mappedVlabel = g.getVLabel(mappedV);
-					for (Vertex x : g.getAllNeighbors(mappedV)) {
-						if (!mappedVertices.contains(x.getId())) {
-							ExtendedEdge ee = new ExtendedEdge(v, rightMost + 1, mappedVlabel, x.getLabel(),
-									g.getEdgeLabel(mappedV, x.getId()));
+					for (int i = g.offsets[mappedV]; i < g.offsets[mappedV + 1]; i++) {
+						int x = g.targets[i];
+						if (indexOf(isom, x) < 0) {
+							ExtendedEdge ee = new ExtendedEdge(v, rightMost + 1, mappedVlabel, g.vertexLabels[x],
+									g.edgeLabels[i]);
 							if (extensions.get(ee) == null)
 								extensions.put(ee, new HashSet<>());
 							extensions.get(ee).add(g.getId());
@@ -437,36 +501,59 @@ public class Algo {
 		return extensions;
 	}
 
-	private Map<ExtendedEdge, Set<HyperEdge>> rightMostPathExtensions(DFSCode c, Set<HyperEdge> hyperEdges, Graph g) {
+	/**
+	 * Find all the rightmost path extensions of a DFS code, with their occurrences
+	 *
+	 * @param c           a DFS code
+	 * @param occurrences the occurrences of c
+	 * @param isoms       the isomorphisms of c, as returned by subgraphIsomorphisms()
+	 * @param g           a graph
+	 * @return the occurrences of each extension
+	 */
+	private Map<ExtendedEdge, OccurrenceTable> rightMostPathExtensions(DFSCode c, OccurrenceTable occurrences,
+			EmbeddingList isoms, CSRGraph g) {
 		// the key is extended edge pattern, and the value is the occurrence of this pattern
-		Map<ExtendedEdge, Set<HyperEdge>> extensions = new HashMap<>();
+		Map<ExtendedEdge, OccurrenceTable> extensions = new HashMap<>();
 
 		// if the DFS code is empty (WE START FROM AN EMPTY GRAPH)
 		if (c.isEmpty()) {
 			// 回来看一下对于每个ExtendedEdge是否Set<Edge>中的元素真的唯一。结论：唯一！
-			// find all distinct label tuples
-			for (Vertex vertex : g.vertices) {
-				for (Edge e : vertex.getEdgeList()) {
-					int v1L = g.getVLabel(e.v1);
-					int v2L = g.getVLabel(e.v2);
+			// find all distinct label tuples. An edge between two vertices of a same label is
+			// visited from its first vertex in the input file, so that its occurrence keeps the
+			// orientation of the file, and any other edge is visited from its smaller vertex.
+			for (int v1 = 0; v1 < g.getIdCount(); v1++) {
+				for (int i = g.offsets[v1]; i < g.offsets[v1 + 1]; i++) {
+					int v2 = g.targets[i];
+					int v1L = g.vertexLabels[v1];
+					int v2L = g.vertexLabels[v2];
+					if (v1L == v2L ? !g.listedFrom[i] : v2 < v1) {
+						continue;
+					}
+					// a copy of the previous edge (same neighbor, label and orientation) is the same occurrence
+					if (i > g.offsets[v1] && g.targets[i - 1] == v2 && g.edgeLabels[i - 1] == g.edgeLabels[i]
+							&& (v1L != v2L || g.listedFrom[i - 1])) {
+						continue;
+					}
 					ExtendedEdge ee1;
-					HyperEdge he;
+					OccurrenceTable table;
 
 					if (v1L < v2L) {
-						ee1 = new ExtendedEdge(0, 1, v1L, v2L, e.getEdgeLabel());
-						he = new HyperEdge(e.v1, e.v2);
-						hyperEdges.add(he);
+						ee1 = new ExtendedEdge(0, 1, v1L, v2L, g.edgeLabels[i]);
 					} else {
-						ee1 = new ExtendedEdge(0, 1, v2L, v1L, e.getEdgeLabel());
-						he = new HyperEdge(e.v2, e.v1);
-						hyperEdges.add(he);
+						ee1 = new ExtendedEdge(0, 1, v2L, v1L, g.edgeLabels[i]);
 					}
 
 					// Update the list of edge occurrence for this pattern
-					if (extensions.get(ee1) == null)
-						extensions.put(ee1, new HashSet<>());
-					extensions.get(ee1).add(he);
-
+					table = extensions.get(ee1);
+					if (table == null) {
+						table = new OccurrenceTable(2);
+						extensions.put(ee1, table);
+					}
+					if (v1L < v2L) {
+						table.add(v1, v2);
+					} else {
+						table.add(v2, v1);
+					}
 				}
 			}
 		}
@@ -474,75 +561,52 @@ public class Algo {
 			// IF THE DFS CODE IS NOT EMPTY (WE WANT TO EXTEND SOME EXISTING GRAPH)
 			int rightMost = c.getRightMost();
 
-			List<Map<Integer, Integer>> isoms = subgraphIsomorphisms(c, g);
-			for (Map<Integer, Integer> isom : isoms) {
+			// the occurrences of c, grouped by their last vertex
+			OccurrenceTable.ColumnIndex lastVertices = occurrences.indexColumn(occurrences.getColumnCount() - 1);
 
-				// backward extensions from rightmost child
-				Map<Integer, Integer> invertedISOM = new HashMap<>();
-				for (Entry<Integer, Integer> entry : isom.entrySet()) {
-					invertedISOM.put(entry.getValue(), entry.getKey());
-				}
-				int mappedRM = isom.get(rightMost);
-				int mappedRMlabel = g.getVLabel(mappedRM);
-				for (Vertex x : g.getAllNeighbors(mappedRM)) {
-					Integer invertedX = invertedISOM.get(x.getId());
-					Iterator<HyperEdge> iterator = hyperEdges.iterator();
-					if (invertedX != null && c.onRightMostPath(invertedX) && c.notPreOfRM(invertedX) && !c.containEdge(rightMost, invertedX)) {
-
-						HyperEdge he = new HyperEdge();
-
-						while (iterator.hasNext()){
-							he = iterator.next();
-							List<Integer> vertices = he.getHyperEdge();
-							// if the rightmost vertex of existed hyperedge is equal to the rightmost vertex of this pattern
-							if (vertices.get(vertices.size()-1) == mappedRM) {
-								List<Integer> newEdgeList = he.addHyperEdge(mappedRM,x.getId());
-								HyperEdge newhe = new HyperEdge(newEdgeList);
-
-								// rightmost and invertedX both have correspondings in g, so label of vertices
-								// and edge all
-								// can be found by correspondings
-								ExtendedEdge ee = new ExtendedEdge(rightMost, invertedX, mappedRMlabel, x.getLabel(), g.getEdgeLabel(mappedRM, x.getId()));
-								if (extensions.get(ee) == null)
-									extensions.put(ee, new HashSet<>());
-								if (newhe.hashCode() != 0){
-									extensions.get(ee).add(newhe);
-								}
-							}
-						}
+			// the groups of occurrences of c extended by each extension, and the vertex appended to them
+			Map<ExtendedEdge, ExtensionPairs> pairs = new HashMap<>();
 
+			int[] isom = new int[isoms.getVertexCount()];
+			for (int index = 0; index < isoms.size(); index++) {
+				isoms.get(index, isom);
 
+				// backward extensions from rightmost child
+				int mappedRM = isom[rightMost];
+				int mappedRMlabel = g.getVLabel(mappedRM);
+				for (int i = g.offsets[mappedRM]; i < g.offsets[mappedRM + 1]; i++) {
+					int x = g.targets[i];
+					int invertedX = indexOf(isom, x);
+					if (invertedX >= 0 && c.onRightMostPath(invertedX) && c.notPreOfRM(invertedX) && !c.containEdge(rightMost, invertedX)) {
 
+						// rightmost and invertedX both have correspondings in g, so label of vertices
+						// and edge all
+						// can be found by correspondings
+						// the existed hyperedges whose rightmost vertex is the rightmost vertex of this pattern
+						int group = lastVertices.findGroup(mappedRM);
+						if (group >= 0) {
+							ExtendedEdge ee = new ExtendedEdge(rightMost, invertedX, mappedRMlabel, g.vertexLabels[x], g.edgeLabels[i]);
+							addExtension(extensions, pairs, ee, occurrences, group, x);
+						}
 					}
 				}
 
 				// forward extensions from nodes on rightmost path
-				Collection<Integer> mappedVertices = isom.values();
 				for (int v : c.getRightMostPath()) {
-					int mappedV = isom.get(v);
+					int mappedV = isom[v];
 					int mappedVlabel = g.getVLabel(mappedV);
-					Iterator<HyperEdge> iterator = hyperEdges.iterator();
-					for (Vertex x : g.getAllNeighbors(mappedV)) {
-						if (!mappedVertices.contains(x.getId())) {
-							HyperEdge he = new HyperEdge();
-
-							while (iterator.hasNext()){
-								he = iterator.next();
-								List<Integer> vertices = he.getHyperEdge();
-								// if the rightmost vertex of existed hyperedge is equal to the rightmost vertex of this pattern
-								if (vertices.get(vertices.size()-1) == mappedV) {
-									List<Integer> newEdge = he.addHyperEdge(mappedV,x.getId());
-									HyperEdge newhe = new HyperEdge(newEdge);
-
-									ExtendedEdge ee = new ExtendedEdge(v, rightMost + 1, mappedVlabel, x.getLabel(), g.getEdgeLabel(mappedV, x.getId()));
-									if (extensions.get(ee) == null)
-										extensions.put(ee, new HashSet<>());
-									if (newhe.hashCode()!=0){
-										extensions.get(ee).add(newhe);
-									}
-								}
+					// the occurrences of c are extended by the first neighbor that is not mapped
+					boolean extended = false;
+					for (int i = g.offsets[mappedV]; i < g.offsets[mappedV + 1] && !extended; i++) {
+						int x = g.targets[i];
+						if (indexOf(isom, x) < 0) {
+							extended = true;
+							// the existed hyperedges whose rightmost vertex is the mapped vertex of this pattern
+							int group = lastVertices.findGroup(mappedV);
+							if (group >= 0) {
+								ExtendedEdge ee = new ExtendedEdge(v, rightMost + 1, mappedVlabel, g.vertexLabels[x], g.edgeLabels[i]);
+								addExtension(extensions, pairs, ee, occurrences, group, x);
 							}
-
 						}
 					}
 				}
@@ -555,10 +619,206 @@ public class Algo {
 //					break;
 //				}
 //				remaininggraphCount--;
+
+			createOccurrences(extensions, pairs, occurrences, lastVertices);
 		}
 		return extensions;
 	}
 
+	/**
+	 * Record that an extension appends a vertex to a group of occurrences of the extended
+	 * DFS code. The occurrences of the extension are only created by createOccurrences().
+	 *
+	 * @param extensions  the occurrences of each extension
+	 * @param pairs       the groups and vertices recorded for each extension
+	 * @param ee          the extension
+	 * @param occurrences the occurrences of the extended DFS code
+	 * @param group       the group of occurrences to extend
+	 * @param x           the vertex to append
+	 */
+	private void addExtension(Map<ExtendedEdge, OccurrenceTable> extensions, Map<ExtendedEdge, ExtensionPairs> pairs,
+			ExtendedEdge ee, OccurrenceTable occurrences, int group, int x) {
+		ExtensionPairs extensionPairs = pairs.get(ee);
+		if (extensionPairs == null) {
+			extensions.put(ee, new OccurrenceTable(occurrences.getColumnCount() + 1));
+			extensionPairs = new ExtensionPairs();
+			pairs.put(ee, extensionPairs);
+		}
+		extensionPairs.add(group, x);
+	}
+
+	/**
+	 * Create the occurrences of the extensions of a DFS code, with the number of distinct
+	 * images of each of their vertices.
+	 * <p>
+	 * The number of distinct images of the last two vertices of an extension is the number
+	 * of groups and of vertices recorded for it, and the other vertices cannot have more
+	 * images than in the extended DFS code. When this bound on the MNI support is below
+	 * minsup, the extension is removed without creating its occurrences (if the support
+	 * measure is bounded by MNI). When an extension extends every group, the other vertices
+	 * have the images of the extended DFS code, and only the last two are counted. Otherwise,
+	 * the extension is also removed if one of the other vertices has fewer than minsup
+	 * images (see hasMinSupImages()).
+	 *
+	 * @param extensions  the occurrences of each extension, empty until this call
+	 * @param pairs       the groups and vertices recorded for each extension
+	 * @param occurrences the occurrences of the extended DFS code
+	 * @param index       the occurrences of the extended DFS code, grouped by last vertex
+	 */
+	private void createOccurrences(Map<ExtendedEdge, OccurrenceTable> extensions, Map<ExtendedEdge, ExtensionPairs> pairs,
+			OccurrenceTable occurrences, OccurrenceTable.ColumnIndex index) {
+		int last = occurrences.getColumnCount();
+		int[] parentCounts = imageCounts(occurrences);
+
+		Iterator<Entry<ExtendedEdge, OccurrenceTable>> iterator = extensions.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Entry<ExtendedEdge, OccurrenceTable> entry = iterator.next();
+			ExtensionPairs extensionPairs = pairs.get(entry.getKey());
+
+			// the number of distinct groups, and of distinct appended vertices
+			for (int p = 0; p < extensionPairs.size; p++) {
+				images.add((int) (extensionPairs.pairs[p] >>> 32));
+			}
+			int groupCount = images.size();
+			images.clear();
+			for (int p = 0; p < extensionPairs.size; p++) {
+				images.add((int) extensionPairs.pairs[p]);
+			}
+			int vertexCount = images.size();
+			images.clear();
+
+			if (IMAGE_COUNT_PRUNING && isBoundedByMNI()) {
+				int bound = Math.min(groupCount, vertexCount);
+				for (int i = 0; i < last - 1; i++) {
+					bound = Math.min(bound, parentCounts[i]);
+				}
+				if (bound < minSup) {
+					pruneByImageCountCount++;
+					iterator.remove();
+					continue;
+				}
+			}
+
+			// when some groups are not extended, the other vertices may have fewer images
+			if (IMAGE_THRESHOLD_PRUNING && isBoundedByMNI() && groupCount < index.getGroupCount()
+					&& !hasMinSupImages(occurrences, index, extensionPairs, last - 1)) {
+				pruneByImageThresholdCount++;
+				iterator.remove();
+				continue;
+			}
+
+			OccurrenceTable table = entry.getValue();
+			for (int p = 0; p < extensionPairs.size; p++) {
+				int group = (int) (extensionPairs.pairs[p] >>> 32);
+				int x = (int) extensionPairs.pairs[p];
+				for (int k = index.getGroupStart(group); k < index.getGroupEnd(group); k++) {
+					table.add(occurrences, index.getRow(k), x);
+				}
+			}
+
+			int[] counts = new int[last + 1];
+			counts[last - 1] = groupCount;
+			counts[last] = vertexCount;
+			if (groupCount == index.getGroupCount()) {
+				// every occurrence of the extended DFS code was extended
+				System.arraycopy(parentCounts, 0, counts, 0, last - 1);
+			} else {
+				for (int i = 0; i < last - 1; i++) {
+					counts[i] = countImages(table, i);
+				}
+			}
+			table.setImageCounts(counts);
+		}
+	}
+
+	/**
+	 * Check if each of the first vertices of an extension has at least minsup distinct
+	 * images, without creating its occurrences. The images of a vertex are read from the
+	 * groups of occurrences that the extension extends, and the counting stops as soon as
+	 * minsup images are found, so that only a vertex having too few images is counted fully.
+	 *
+	 * @param occurrences    the occurrences of the extended DFS code
+	 * @param index          the occurrences of the extended DFS code, grouped by last vertex
+	 * @param extensionPairs the groups and vertices recorded for the extension
+	 * @param columnCount    the number of vertices to check, from the first one
+	 * @return false if a vertex has fewer than minsup images
+	 */
+	private boolean hasMinSupImages(OccurrenceTable occurrences, OccurrenceTable.ColumnIndex index,
+			ExtensionPairs extensionPairs, int columnCount) {
+		// the distinct groups, as a group is recorded once per appended vertex
+		int[] groups = new int[extensionPairs.size];
+		int groupCount = 0;
+		for (int p = 0; p < extensionPairs.size; p++) {
+			int group = (int) (extensionPairs.pairs[p] >>> 32);
+			if (images.add(group)) {
+				groups[groupCount++] = group;
+			}
+		}
+		images.clear();
+
+		for (int i = 0; i < columnCount; i++) {
+			int[] column = occurrences.getColumn(i);
+			for (int g = 0; g < groupCount && images.size() < minSup; g++) {
+				for (int k = index.getGroupStart(groups[g]); k < index.getGroupEnd(groups[g]) && images.size() < minSup; k++) {
+					images.add(column[index.getRow(k)]);
+				}
+			}
+			boolean enough = images.size() >= minSup;
+			images.clear();
+			if (!enough) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check if the support measure is never larger than the MNI support
+	 * @return true for MNI, MI, MIS (an independent set of occurrences has
+	 *         distinct images of each vertex) and MVC-exact (the images of a vertex cover
+	 *         all the occurrences, and MIS-exact for the same reason as MIS)
+	 */
+	private boolean isBoundedByMNI() {
+		switch (supType) {
+			case "MNI":
+			case "MI":
+			case "MIS":
+			case "MVC-exact":
+			case "MIS-exact":
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * The groups of occurrences extended by an extension, with the vertex appended to them,
+	 * packed in a long and in the order in which they were recorded
+	 */
+	private static class ExtensionPairs {
+		/** the pairs already recorded */
+		LongHashSet seen = new LongHashSet(16);
+		/** the pairs */
+		long[] pairs = new long[16];
+		/** the number of pairs */
+		int size;
+
+		/**
+		 * Record a pair, unless it was already recorded
+		 * @param group the group
+		 * @param x the vertex
+		 */
+		void add(int group, int x) {
+			long pair = LongHashSet.pack(group, x);
+			if (seen.add(pair)) {
+				if (size == pairs.length) {
+					pairs = Arrays.copyOf(pairs, size * 2);
+				}
+				pairs[size++] = pair;
+			}
+		}
+	}
+
 	/**
 	 * Initial call of the depth-first search
 	 * 
@@ -567,39 +827,20 @@ public class Algo {
 	 * @param outputFrequentVertices if true, include frequent subgraph with a
 	 *                               single vertex in the output
 	 * @throws IOException            exception if error writing/reading to file
-	 * @throws ClassNotFoundException if error casting a class
 	 */
-	private void gSpan(Graph graphDB, boolean outputFrequentVertices) throws IOException, ClassNotFoundException {
+	private void gSpan(CSRGraph graphDB, boolean outputFrequentVertices) throws IOException {
 
 		// If the user wants single vertex graph, we will output them
 		if (outputFrequentVertices || ELIMINATE_INFREQUENT_VERTICES) {
 			findAllOnlyOneVertex(graphDB, outputFrequentVertices);
 		}
 
-		// get the vertices of this graph
-		graphDB.precalculateVertexList();
-
-
 		if (ELIMINATE_INFREQUENT_VERTEX_PAIRS || ELIMINATE_INFREQUENT_EDGE_LABELS) {
 			removeInfrequentVertexPairs(graphDB);
 		}
 
-		if (DEBUG_MODE) {
-			System.out.println("Precalculating information...");
-		}
-
-		if (graphDB.vertices != null || graphDB.vertices.length != 0) {
-			// If we deleted some vertices, we recalculate again the vertex list
-			if (infrequentVerticesRemovedCount > 0) {
-				graphDB.precalculateVertexList();
-			}
-
-			// Precalculate the list of neighbors of each vertex
-			graphDB.precalculateVertexNeighbors();
-
-			// Precalculate the list of vertices having each label
-			graphDB.precalculateLabelsToVertices();
-		} else {
+		// the neighbors and the vertices of each label are already precalculated in the CSR graph
+		if (graphDB.getEdgeCount() == 0) {
 			if (DEBUG_MODE) {
 				System.out.println("EMPTY GRAPH!");
 			}
@@ -612,7 +853,7 @@ public class Algo {
 			}
 			// Start the depth-first search
 
-			gSpanDFS(new DFSCode(), new HashSet<HyperEdge>(), graphDB);
+			gSpanDFS(new DFSCode(), new OccurrenceTable(0), new EmbeddingList(new int[0]), null, graphDB);
 		}
 	}
 
@@ -650,7 +891,7 @@ public class Algo {
 	/**
 	 * Create the pruning matrix
 	 */
-	private void removeInfrequentVertexPairs(Graph graphDB) {
+	private void removeInfrequentVertexPairs(CSRGraph graphDB) {
 
 //		Set<Pair> alreadySeenPair;
 		SparseTriangularMatrix matrix;
@@ -671,14 +912,11 @@ public class Algo {
 
 		// CALCULATE THE SUPPORT OF EACH ENTRY
 
-		Vertex[] vertices = graphDB.getAllVertices();
-
-		for (int i = 0; i < vertices.length; i++) {
-			Vertex v1 = vertices[i];
-			int labelV1 = v1.getLabel();
+		for (int v1 = 0; v1 < graphDB.getIdCount(); v1++) {
+			int labelV1 = graphDB.getVLabel(v1);
 
-			for (Edge edge : v1.getEdgeList()) {
-				int v2 = edge.another(v1.getId());
+			for (int i = graphDB.offsets[v1]; i < graphDB.offsets[v1 + 1]; i++) {
+				int v2 = graphDB.targets[i];
 				int labelV2 = graphDB.getVLabel(v2);
 
 				if (ELIMINATE_INFREQUENT_EDGE_LABELS) {
@@ -694,7 +932,7 @@ public class Algo {
 
 				if (ELIMINATE_INFREQUENT_EDGE_LABELS) {
 					// Update edge label count
-					int edgeLabel = edge.getEdgeLabel();
+					int edgeLabel = graphDB.edgeLabels[i];
 
 					Integer edgeSupport = mapEdgeLabelToSupport.get(edgeLabel);
 					if (edgeSupport == null) {
@@ -734,31 +972,29 @@ public class Algo {
 
 		// Remove infrequent edge Labels and Vertex pairs
 		if (ELIMINATE_INFREQUENT_VERTEX_PAIRS || ELIMINATE_INFREQUENT_EDGE_LABELS) {
-			// CALCULATE THE SUPPORT OF EACH ENTRY
-//			Vertex[] vertices = graphDB.getAllVertices();
+			// an edge is removed from the lists of both of its vertices, as the conditions are symmetric
+			boolean[] removed = new boolean[graphDB.targets.length];
 
-			for (int i = 0; i < vertices.length; i++) {
-				Vertex v1 = vertices[i];
-				int labelV1 = v1.getLabel();
+			for (int v1 = 0; v1 < graphDB.getIdCount(); v1++) {
+				int labelV1 = graphDB.getVLabel(v1);
 
-				Iterator<Edge> iter = v1.getEdgeList().iterator();
-				while (iter.hasNext()) {
-					Edge edge = (Edge) iter.next();
-					int v2 = edge.another(v1.getId());
+				for (int i = graphDB.offsets[v1]; i < graphDB.offsets[v1 + 1]; i++) {
+					int v2 = graphDB.targets[i];
 					int labelV2 = graphDB.getVLabel(v2);
 
 					int count = matrix.getSupportForItems(labelV1, labelV2);
 					if (ELIMINATE_INFREQUENT_VERTEX_PAIRS && count < minSup) {
-						iter.remove();
+						removed[i] = true;
 
 						infrequentVertexPairsRemoved++;
-					} else if (ELIMINATE_INFREQUENT_EDGE_LABELS && mapEdgeLabelToSupport.get(edge.getEdgeLabel()) < minSup) {
-						iter.remove();
+					} else if (ELIMINATE_INFREQUENT_EDGE_LABELS && mapEdgeLabelToSupport.get(graphDB.edgeLabels[i]) < minSup) {
+						removed[i] = true;
 						edgeRemovedByLabel++;
 					}
 				}
 
 			}
+			graphDB.removeEdges(removed);
 		}
 
 		infrequentVertexPairsRemoved = infrequentVertexPairsRemoved/2;
@@ -776,10 +1012,9 @@ public class Algo {
 //				System.out.println("edge label:" + entry.getKey() + ", " + "support:" + entry.getValue());
 //			}
 
-			for (int i = 0; i < vertices.length; i++) {
-				Vertex v = vertices[i];
-				for (Edge e: v.getEdgeList()) {
-					System.out.println("frequent edge:" + e.v1 + " " + e.v2 + " " + e.getEdgeLabel());
+			for (int v = 0; v < graphDB.getIdCount(); v++) {
+				for (int i = graphDB.offsets[v]; i < graphDB.offsets[v + 1]; i++) {
+					System.out.println("frequent edge:" + v + " " + graphDB.targets[i] + " " + graphDB.edgeLabels[i]);
 				}
 			}
 		}
@@ -788,15 +1023,16 @@ public class Algo {
 	/**
 	 * Recursive method to perform the depth-first search
 	 *
-	 * @param
 	 * @param c          the current DFS code
-	 * @param hyperEdges
-	 * @param graphDB    the graph database
-	 * @throws IOException            exception if error writing/reading to file
-	 * @throws ClassNotFoundException if error casting a class
+	 * @param occurrences the occurrences of c
+	 * @param isoms       the isomorphisms of c, as returned by subgraphIsomorphisms()
+	 * @param hypertree   the positions of the occurrences of the hypertree of c, if it is
+	 *                    extended by the hypertrees of the extensions, and otherwise null
+	 * @param graphDB     the graph database
+	 * @throws IOException exception if error writing/reading to file
 	 */
-	private void gSpanDFS(DFSCode c, Set<HyperEdge> hyperEdges, Graph graphDB)
-			throws IOException, ClassNotFoundException {
+	private void gSpanDFS(DFSCode c, OccurrenceTable occurrences, EmbeddingList isoms, int[] hypertree, CSRGraph graphDB)
+			throws IOException {
 		// If we have reached the maximum size, we do not need to extend this graph
 		if (c.size() == maxNumberOfEdges - 1) {
 			return;
@@ -806,33 +1042,40 @@ public class Algo {
 		// They are stored in a map where the key is an extended edge, and the value is
 		// the list of vertex ids where this edge extends the current subgraph c.
 
-		Map<ExtendedEdge, Set<HyperEdge>> extensions = rightMostPathExtensions(c, hyperEdges, graphDB);
+		Map<ExtendedEdge, OccurrenceTable> extensions = rightMostPathExtensions(c, occurrences, isoms, graphDB);
 
 		// For each extension
 		if (extensions != null) {
-			for (Entry<ExtendedEdge, Set<HyperEdge>> entry : extensions.entrySet()) {
+			for (Entry<ExtendedEdge, OccurrenceTable> entry : extensions.entrySet()) {
 
-				DFSCode newC = c.copy();
 				ExtendedEdge extension = entry.getKey();
-				Set<HyperEdge> hyperEdgeSet = entry.getValue();
-				newC.add(extension);
+				OccurrenceTable newOccurrences = entry.getValue();
+				DFSCode newC = c.extend(extension);
 
-//				for (HyperEdge temp : hyperEdges){
-//					System.out.println(temp.toString());
-//				}
+//				System.out.println(occurrences.toString());
 //				System.out.println("============");
 
-				if (hyperEdgeSet == null || hyperEdgeSet.size() ==0) {
+				if (newOccurrences == null || newOccurrences.isEmpty()) {
 					break;
 				}
 
 				int sup = 0;
 
+				// a candidate whose support is bounded below minsup is not evaluated further (the
+				// bounds on all the occurrences also bound the support on a hypertree)
+				if (!passesSupportBounds(newOccurrences)) {
+					continue;
+				}
+
+				int[] newHypertree = null;
 				if (getHypertree) {
-					Set<HyperEdge> hypertree = HypergraphPrim.Prim(hyperEdgeSet);
-					sup = calculateSup(hypertree, newC, graphDB);
+					long start = System.nanoTime();
+					int[][] samples = sampleHypertrees(occurrences, hypertree, newOccurrences);
+					newHypertree = samples[0];
+					sup = hypertreeSupport(newOccurrences, samples, newC, graphDB);
+					hypertreeTime += System.nanoTime() - start;
 				} else {
-					sup = calculateSup(hyperEdgeSet, newC, graphDB);
+					sup = calculateSup(newOccurrences, newC, graphDB);
 				}
 
 				// if the support is enough
@@ -842,11 +1085,16 @@ public class Algo {
 					// if the resulting graph is canonical (it means that the graph is nonredundant)
 					if (isCanonical(newC)) {
 						// Save the graph
-						FrequentSubgraph subgraph = new FrequentSubgraph(newC, hyperEdgeSet, sup);
+						FrequentSubgraph subgraph = new FrequentSubgraph(newC, newOccurrences, sup);
 						frequentSubgraphs.add(subgraph);
 
+						// The isomorphisms of the new graph are those of this graph extended by one edge,
+						// as in the projected databases of gSpan (a single edge has no parent to extend)
+						EmbeddingList newIsoms = c.isEmpty() ? subgraphIsomorphisms(newC, graphDB)
+								: extendIsomorphisms(isoms, extension, graphDB);
+
 						// Try to extend this graph to generate larger frequent subgraphs
-						gSpanDFS(newC, hyperEdgeSet, graphDB);
+						gSpanDFS(newC, newOccurrences, newIsoms, incrementalHypertree ? newHypertree : null, graphDB);
 					}
 				}
 			}
@@ -855,6 +1103,75 @@ public class Algo {
 		MemoryLogger.getInstance().checkMemory();
 	}
 
+	/**
+	 * Draw the hypertrees of the occurrences of a candidate: hypertreeSampleCount random
+	 * hypertrees, in parallel, or a single hypertree extending the hypertree of the parent
+	 * in the incremental mode. With a seed, the generator of each hypertree is seeded from
+	 * the seed, the occurrences and the number of the sample, so that the hypertrees do not
+	 * depend on the order of the search nor on the scheduling of the samples.
+	 *
+	 * @param occurrences    the occurrences of the parent
+	 * @param hypertree      the positions of the occurrences of the hypertree of the parent,
+	 *                       or null
+	 * @param newOccurrences the occurrences of the candidate
+	 * @return the positions of the occurrences of each hypertree
+	 */
+	private int[][] sampleHypertrees(OccurrenceTable occurrences, int[] hypertree, OccurrenceTable newOccurrences) {
+		Random[] randoms = new Random[hypertreeSampleCount];
+		long seed = hypertreeSeeded ? HypergraphPrim.seedOf(newOccurrences, hypertreeSeed) : 0;
+		for (int s = 0; s < randoms.length; s++) {
+			randoms[s] = hypertreeSeeded ? new Random(OccurrenceTable.nextFingerprint(seed, s)) : new Random();
+		}
+		if (randoms.length == 1 && incrementalHypertree && hypertree != null && newOccurrences.hasParentRows()) {
+			return new int[][] { HypergraphPrim.extendHypertree(occurrences, hypertree, newOccurrences,
+					hypertreeVertices, randoms[0]) };
+		}
+		return HypergraphPrim.sampleHypertrees(newOccurrences, randoms);
+	}
+
+	/**
+	 * Calculate the support of a candidate on each of its sampled hypertrees, and combine
+	 * them as chosen by hypertreeCombination (the mean is rounded down, so that it reaches
+	 * minsup exactly when the real mean does)
+	 *
+	 * @param occurrences the occurrences of the candidate
+	 * @param samples     the positions of the occurrences of each hypertree
+	 * @param c           the DFS code of the candidate
+	 * @param graphDB     the graph database
+	 * @return the combined support
+	 */
+	private int hypertreeSupport(OccurrenceTable occurrences, int[][] samples, DFSCode c, CSRGraph graphDB) {
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		long sum = 0;
+		long sumOfSquares = 0;
+		for (int[] rows : samples) {
+			int sup = calculateSup(HypergraphPrim.getRows(occurrences, rows), c, graphDB);
+			min = Math.min(min, sup);
+			max = Math.max(max, sup);
+			sum += sup;
+			sumOfSquares += (long) sup * sup;
+		}
+
+		int n = samples.length;
+		if (n > 1) {
+			// the sample variance of the supports
+			double variance = (sumOfSquares - (double) sum * sum / n) / (n - 1);
+			hypertreeCandidateCount++;
+			hypertreeVarianceSum += variance;
+			hypertreeMaxVariance = Math.max(hypertreeMaxVariance, variance);
+		}
+
+		switch (hypertreeCombination) {
+			case "max":
+				return max;
+			case "mean":
+				return (int) (sum / n);
+			default:
+				return min;
+		}
+	}
+
 	/**
 	 * Check if a DFS code is canonical
 	 * 
@@ -863,8 +1180,9 @@ public class Algo {
 	 */
 	private boolean isCanonical(DFSCode c) {
 		DFSCode canC = new DFSCode();
+		CSRGraph patternGraph = new CSRGraph(c);
 		for (int i = 0; i < c.size(); i++) {
-			Map<ExtendedEdge, Set<Integer>> extensions = rightMostPathExtensionsFromSingle(canC, new Graph(c));
+			Map<ExtendedEdge, Set<Integer>> extensions = rightMostPathExtensionsFromSingle(canC, patternGraph);
 			ExtendedEdge minEE = null;
 			for (ExtendedEdge ee : extensions.keySet()) {
 				if (ee.smallerThan(minEE))
@@ -873,12 +1191,39 @@ public class Algo {
 
 			if (minEE.smallerThan(c.getAt(i)))
 				return false;
-			canC.add(minEE);
+			canC = canC.extend(minEE);
+		}
+		return true;
+	}
+
+	/**
+	 * Check the cheap upper bounds of the support of a candidate, in increasing order of
+	 * cost, before its support is calculated with an expensive measure: the number of
+	 * occurrences bounds every measure, and MNI bounds the measures that are bounded by MNI.
+	 * The number of candidates rejected by each bound is counted.
+	 *
+	 * @param occurrences the occurrences of the candidate
+	 * @return false if a bound proves that the support is below minsup
+	 */
+	private boolean passesSupportBounds(OccurrenceTable occurrences) {
+		// MNI is already cheap
+		if (!TIERED_SUPPORT || supType.equals("MNI")) {
+			return true;
 		}
+		// each occurrence adds at most one to the support
+		if (occurrences.size() < minSup) {
+			eliminatedByCountCount++;
+			return false;
+		}
+		if (isBoundedByMNI() && MNI(occurrences) < minSup) {
+			eliminatedByMNICount++;
+			return false;
+		}
+		expensiveSupportCount++;
 		return true;
 	}
 
-	public int calculateSup(Set<HyperEdge> hyper, DFSCode c, Graph graphDB) {
+	public int calculateSup(OccurrenceTable hyper, DFSCode c, CSRGraph graphDB) {
 		int sup = 0;
 		switch (supType) {
 			case "MNI":
@@ -890,359 +1235,270 @@ public class Algo {
 			case "MVC":
 				sup = MVC(hyper);
 				break;
+			case "MVC-exact":
+				sup = exactMVC(hyper);
+				break;
 			case "MIS":
 				sup = MIS(hyper);
 				break;
+			case "MIS-exact":
+				sup = exactMIS(hyper);
+				break;
 		}
 		return sup;
 	}
 
 //
 
-	public int MNI(Set<HyperEdge> hyperEdgeSet) {
+	/**
+	 * Calculate the MNI support of a pattern: the smallest number of distinct images of a
+	 * vertex of the pattern. The images are counted in a bitset reused between calls.
+	 *
+	 * @param hyperEdgeSet the occurrences of the pattern
+	 * @return the MNI support
+	 */
+	public int MNI(OccurrenceTable hyperEdgeSet) {
 		if (hyperEdgeSet == null || hyperEdgeSet.isEmpty()) {
 			return 0;
 		}
 
-		List<Set<Integer>> elementSets = new ArrayList<>();
-
-		// Initialize elementSets with empty sets
-		for (int i = 0; i < hyperEdgeSet.iterator().next().getHyperEdge().size(); i++) {
-			elementSets.add(new HashSet<>());
+		// Find the minimum number of distinct elements among the columns of the occurrences
+		int minSize = Integer.MAX_VALUE;
+		for (int count : imageCounts(hyperEdgeSet)) {
+			minSize = Math.min(minSize, count);
 		}
 
-		// Populate elementSets with unique elements from each position in the hyperedges
-		for (HyperEdge edge : hyperEdgeSet) {
-			List<Integer> elements = edge.getHyperEdge();
-			for (int i = 0; i < elements.size(); i++) {
-				elementSets.get(i).add(elements.get(i));
+		return minSize;
+	}
+
+	/**
+	 * Get the number of distinct images of each vertex of a pattern, calculating them
+	 * if they were not carried from the parent pattern
+	 *
+	 * @param occurrences the occurrences of the pattern
+	 * @return the number of distinct vertices of each column of the occurrences
+	 */
+	private int[] imageCounts(OccurrenceTable occurrences) {
+		int[] counts = occurrences.getImageCounts();
+		if (counts == null) {
+			counts = new int[occurrences.getColumnCount()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = countImages(occurrences, i);
 			}
+			occurrences.setImageCounts(counts);
 		}
+		return counts;
+	}
 
-		// Find the minimum size among the sets
-		int minSize = Integer.MAX_VALUE;
-		for (Set<Integer> set : elementSets) {
-			minSize = Math.min(minSize, set.size());
+	/**
+	 * Count the distinct vertices of a column of occurrences
+	 *
+	 * @param occurrences the occurrences
+	 * @param i           the position of the column
+	 * @return the number of distinct vertices
+	 */
+	private int countImages(OccurrenceTable occurrences, int i) {
+		int[] column = occurrences.getColumn(i);
+		for (int row = 0; row < occurrences.size(); row++) {
+			images.add(column[row]);
 		}
-
-		return minSize;
+		int count = images.size();
+		images.clear();
+		return count;
 	}
 
-	public int MI(Set<HyperEdge> hyperEdgeSet, DFSCode c, Graph graphDB) {
+	/**
+	 * Calculate the MI support of a pattern: the MNI support, or less if, for a label of
+	 * the pattern, there are fewer distinct images of the pairs of vertices having this
+	 * label. The pairs of images are packed in long values.
+	 *
+	 * @param hyperEdgeSet the occurrences of the pattern
+	 * @param c            the DFS code of the pattern
+	 * @param graphDB      the graph database
+	 * @return the MI support
+	 */
+	public int MI(OccurrenceTable hyperEdgeSet, DFSCode c, CSRGraph graphDB) {
 		List<Integer> labels = c.getAllVLabels();
 
-		// key: vertex label, value: the vertex id set with this label. For each set, if the label exists in mutiple vertex in pattern, the corresponding vertex occurrences are in this list
-		Map<Integer,Set<List<Integer>>> labelMapVidSet = new HashMap<>();
-
-		// key: vid in pattern, value, the corresponding vertex id in occurrences
-		Map<Integer,List<Integer>> patternVMapOccurV = new HashMap<>();
-
-		List<Integer> occurVid0 = new ArrayList<>();
-
 		int MI = MNI(hyperEdgeSet);
 
-		int k = 0;
+		// the i-th column holds the vertex ids corresponding to the i-th vid in occurrences,
+		// and only the columns of a vertex of the pattern are compared
+		int k = Math.min(hyperEdgeSet.getColumnCount(), labels.size());
+		int[] columnLabels = c.getColumnLabels();
 
-		// vid in pattern
-		int patternVid = 0;
-
-		for (HyperEdge he : hyperEdgeSet){
-			int vertex = he.getHyperEdge().get(0);
-			k = he.getHyperEdgeSize();
-			occurVid0.add(vertex);
-		}
-		patternVMapOccurV.put(patternVid,occurVid0);
-
-		for (int i = 1; i < k; i++){
-			List<Integer> occurVid = new ArrayList<>();
-			for (HyperEdge he : hyperEdgeSet) {
-				int vertex = he.getHyperEdge().get(i);
-				occurVid.add(vertex);
-			}
-			patternVMapOccurV.put(i,occurVid);
-		}
+		// key: vertex label, value: the pairs of vertex ids of the columns with this label
+		Map<Integer, LongHashSet> labelMapVidSet = new HashMap<>();
 
 		// for i-th vertex in the pattern
-		for (int i = 0; i < k; i++){
-			// Ensure i is within bounds of labels
-			if (i >= labels.size()) {
-				break;  // or continue; depending on your logic
-			}
+		for (int i = 0; i < k; i++) {
+			int label = labels.get(i);
+			int[] column1 = hyperEdgeSet.getColumn(i);
 
 			// Find j-th vertex has the same label with i-th vertex in the pattern
-			for (int j = i+1; j < k; j++) {
-				// Ensure j is within bounds of labels
-				if (j >= labels.size()) {
-					break;  // or continue; depending on your logic
+			for (int j = i + 1; j < k; j++) {
+				if (columnLabels[i] != columnLabels[j]) {
+					continue;
 				}
-
-				Set<List<Integer>> vidSet = new HashSet<>();
-				if (graphDB.getVLabel(patternVMapOccurV.get(i).get(0)) == graphDB.getVLabel(patternVMapOccurV.get(j).get(0))) {
-					for (int l = 0; l < hyperEdgeSet.size(); l++) {
-						List<Integer> vids = new ArrayList<>();
-						int v1 = patternVMapOccurV.get(i).get(l);
-						int v2 = patternVMapOccurV.get(j).get(l);
-						vids.add(v1);
-						vids.add(v2);
-						vidSet.add(vids);
-
-						// Check if labelMapVidSet already contains the key
-						// Ensure labels.get(i) is safe to access
-						if (i < labels.size() && !labelMapVidSet.containsKey(labels.get(i))) {
-							labelMapVidSet.put(labels.get(i), new HashSet<>());
-						}
-
-						if (i < labels.size()) {
-							labelMapVidSet.get(labels.get(i)).addAll(vidSet);
-						}
-					}
+				LongHashSet vidSet = labelMapVidSet.get(label);
+				if (vidSet == null) {
+					// the set stops growing at MI pairs
+					vidSet = new LongHashSet(Math.min(hyperEdgeSet.size(), MI));
+					labelMapVidSet.put(label, vidSet);
+				}
+				int[] column2 = hyperEdgeSet.getColumn(j);
+				// once a set has MI pairs, it cannot lower MI any more
+				for (int l = 0; l < hyperEdgeSet.size() && vidSet.size() < MI; l++) {
+					vidSet.add(LongHashSet.pack(column1[l], column2[l]));
 				}
 			}
 		}
 
-
-		if (labelMapVidSet == null) {
-			return MI;
+		for (LongHashSet vidSet : labelMapVidSet.values()) {
+			MI = Math.min(MI, vidSet.size());
 		}
+		return MI;
+	}
 
-		int minimum = 9999999;
-		for (Entry<Integer,Set<List<Integer>>> entry: labelMapVidSet.entrySet()){
-			int temp = entry.getValue().size();
-			if (temp < minimum){
-				minimum = temp;
-			}
+	/**
+	 * Calculate the size of a vertex cover of the occurrences of a pattern, approximately:
+	 * the connected components of the occurrences are solved independently, exactly if they
+	 * are small and with the greedy algorithm otherwise (see {@link ComponentSupport})
+	 *
+	 * @param hyperEdgeSet the occurrences of the pattern
+	 * @return the size of the vertex cover
+	 */
+	public static int MVC(OccurrenceTable hyperEdgeSet) {
+		if (hyperEdgeSet == null || hyperEdgeSet.isEmpty()) {
+			return 0;
 		}
 
-		if (minimum < MI) {
-			MI = minimum;
-			return MI;
-		} else {
-			return MI;
-		}
+		return ComponentSupport.minimumVertexCover(new OccurrenceHypergraph(hyperEdgeSet));
 	}
 
+	/**
+	 * Calculate the size of a minimum vertex cover of the occurrences of a pattern,
+	 * exactly, or with the approximate MVC algorithm if the exact search takes more than
+	 * exactTimeBudget milliseconds. The images of any vertex of the pattern also cover the
+	 * occurrences, so the approximate value is never larger than the MNI support.
+	 *
+	 * @param hyperEdgeSet the occurrences of the pattern
+	 * @return the size of the vertex cover
+	 */
+	public int exactMVC(OccurrenceTable hyperEdgeSet) {
+		if (hyperEdgeSet == null || hyperEdgeSet.isEmpty()) {
+			return 0;
+		}
 
-
-//	public int MI(Set<HyperEdge> hyperEdgeSet, DFSCode c, Graph graphDB) {
-//		// Step 1: Retrieve all vertex labels from the DFSCode.
-//		List<Integer> labels = c.getAllVLabels();
-//
-//		// Step 2: Create a map to group sets of vertices by their labels and positions.
-//		Map<Integer, Set<Set<Integer>>> labelToVerticesMap = new HashMap<>();
-//
-//		for (HyperEdge he : hyperEdgeSet) {
-//			List<Integer> vertices = he.getHyperEdge();
-//			int size = Math.min(vertices.size(), labels.size());
-//
-//			for (int i = 0; i < size; i++) {
-//				int label = labels.get(i);
-//
-//				// Create the set of vertex positions for this label if it doesn't exist
-//				labelToVerticesMap.putIfAbsent(label, new HashSet<>());
-//
-//				// Create a set of vertex positions for this label at the i-th position
-//				Set<Integer> vertexPositions = new HashSet<>();
-//				for (int j = 0; j < size; j++) {
-//					if (labels.get(j) == label) {
-//						vertexPositions.add(vertices.get(j));
-//					}
-//				}
-//
-//				// Add the vertex positions to the set for this label
-//				labelToVerticesMap.get(label).add(vertexPositions);
-//			}
-//		}
-//
-//		// Step 3: Calculate the support number for each label.
-//		List<Integer> supportNumbers = new ArrayList<>();
-//		for (Entry<Integer, Set<Set<Integer>>> entry : labelToVerticesMap.entrySet()) {
-//			int supportNumber = entry.getValue().size();
-//			supportNumbers.add(supportNumber);
-//		}
-//
-//		// Step 4: Determine the minimum support number.
-//		return Collections.min(supportNumbers);
-//	}
+		OccurrenceHypergraph hypergraph = new OccurrenceHypergraph(hyperEdgeSet);
+		int sup = MinimumVertexCover.exact(hypergraph, exactTimeBudget);
+		if (sup < 0) {
+			exactTimeoutCount++;
+			sup = Math.min(ComponentSupport.minimumVertexCover(hypergraph), MNI(hyperEdgeSet));
+		}
+		return sup;
+	}
 
 
-//	public int MVC(Set<HyperEdge> hyperEdgeSet) {
-//		// Find all vertices
-//		Set<Integer> vertices = new HashSet<>();
-//		for (HyperEdge hyperEdge : hyperEdgeSet) {
-//			vertices.addAll(hyperEdge.getHyperEdge());
-//		}
-//
-//		int n = vertices.size();
-//		List<Integer> vertexList = new ArrayList<>(vertices);
-//
-//		// Check all subsets of vertices
-//		int minCoverSize = n;
-//		for (int i = 0; i < (1 << n); i++) {
-//			Set<Integer> cover = new HashSet<>();
-//			for (int j = 0; j < n; j++) {
-//				if ((i & (1 << j)) != 0) {
-//					cover.add(vertexList.get(j));
-//				}
-//			}
-//
-//			if (isVertexCover(cover, hyperEdgeSet)) {
-//				minCoverSize = Math.min(minCoverSize, cover.size());
-//			}
-//		}
-//
-//		return minCoverSize;
-//	}
-//
-//	private static boolean isVertexCover(Set<Integer> cover, Set<HyperEdge> hyperEdgeSet) {
-//		for (HyperEdge hyperEdge : hyperEdgeSet) {
-//			boolean covered = false;
-//			for (Integer vertex : hyperEdge.getHyperEdge()) {
-//				if (cover.contains(vertex)) {
-//					covered = true;
-//					break;
-//				}
-//			}
-//			if (!covered) {
-//				return false;
-//			}
-//		}
-//		return true;
-//	}
 
-	// approximate MVC algotithm
-	public static int MVC(Set<HyperEdge> hyperEdgeSet) {
+	/**
+	 * Calculate the size of a maximum independent set of the occurrences of a pattern,
+	 * exactly, or with the approximate MIS algorithm if the exact search takes more than
+	 * exactTimeBudget milliseconds
+	 *
+	 * @param hyperEdgeSet the occurrences of the pattern
+	 * @return the size of the independent set
+	 */
+	public int exactMIS(OccurrenceTable hyperEdgeSet) {
 		if (hyperEdgeSet == null || hyperEdgeSet.isEmpty()) {
 			return 0;
 		}
 
-		// Map to keep track of the frequency of each vertex
-		Map<Integer, Integer> vertexFrequency = new HashMap<>();
-		for (HyperEdge edge : hyperEdgeSet) {
-			for (Integer vertex : edge.getHyperEdge()) {
-				vertexFrequency.put(vertex, vertexFrequency.getOrDefault(vertex, 0) + 1);
-			}
+		OccurrenceHypergraph hypergraph = new OccurrenceHypergraph(hyperEdgeSet);
+		int sup = MaximumIndependentEdgeSet.exact(hypergraph, exactTimeBudget);
+		if (sup < 0) {
+			exactTimeoutCount++;
+			sup = ComponentSupport.maximumIndependentSet(hypergraph);
 		}
+		return sup;
+	}
 
-		Set<Integer> coverSet = new HashSet<>();
-		Set<HyperEdge> uncoveredEdges = new HashSet<>(hyperEdgeSet);
-
-		// Greedily add vertices to the cover set based on frequency
-		while (!uncoveredEdges.isEmpty()) {
-			// Find the vertex that covers the most remaining hyperedges
-			int maxCover = -1;
-			int vertexToAdd = -1;
-			for (Map.Entry<Integer, Integer> entry : vertexFrequency.entrySet()) {
-				int vertex = entry.getKey();
-				if (!coverSet.contains(vertex)) {
-					int coverCount = 0;
-					for (HyperEdge edge : uncoveredEdges) {
-						if (edge.getHyperEdge().contains(vertex)) {
-							coverCount++;
-						}
-					}
-					if (coverCount > maxCover) {
-						maxCover = coverCount;
-						vertexToAdd = vertex;
-					}
-				}
-			}
-
-			// Add the selected vertex to the cover set
-			coverSet.add(vertexToAdd);
-
-			// Remove the hyperedges covered by this vertex using an iterator
-			Iterator<HyperEdge> iterator = uncoveredEdges.iterator();
-			while (iterator.hasNext()) {
-				HyperEdge edge = iterator.next();
-				if (edge.getHyperEdge().contains(vertexToAdd)) {
-					iterator.remove();
-				}
-			}
-		}
+	/**
+	 * Set the maximum time of an exact support calculation ("MVC-exact" or "MIS-exact"),
+	 * after which the approximate algorithm is used instead
+	 *
+	 * @param exactTimeBudget the time, in milliseconds
+	 */
+	public void setExactTimeBudget(long exactTimeBudget) {
+		this.exactTimeBudget = exactTimeBudget;
+	}
 
-		return coverSet.size();
+	/**
+	 * Choose how the hypertree of a pattern is built, when the support is calculated on a
+	 * hypertree: from scratch with a random start (the default), or by extending the
+	 * hypertree of its parent pattern, which is faster but keeps the shape of the parent
+	 * hypertree
+	 *
+	 * @param incrementalHypertree true to extend the hypertree of the parent
+	 */
+	public void setIncrementalHypertree(boolean incrementalHypertree) {
+		this.incrementalHypertree = incrementalHypertree;
 	}
 
+	/**
+	 * Seed the random hypertrees, so that the supports calculated on hypertrees, and the
+	 * frequent patterns, are the same from one run to the next
+	 *
+	 * @param seed the seed
+	 */
+	public void setHypertreeSeed(long seed) {
+		this.hypertreeSeeded = true;
+		this.hypertreeSeed = seed;
+	}
 
+	/**
+	 * Calculate the support of a candidate on several random hypertrees, drawn in parallel,
+	 * instead of a single one. The incremental mode only applies to a single hypertree.
+	 *
+	 * @param sampleCount the number of hypertrees of each candidate (at least 1)
+	 * @param combination how their supports are combined: "min" (the default), "max" or
+	 *                    "mean"
+	 */
+	public void setHypertreeSamples(int sampleCount, String combination) {
+		if (sampleCount < 1) {
+			throw new IllegalArgumentException("the number of hypertree samples must be at least 1: " + sampleCount);
+		}
+		if (!combination.equals("min") && !combination.equals("max") && !combination.equals("mean")) {
+			throw new IllegalArgumentException("unknown combination of hypertree supports: " + combination);
+		}
+		this.hypertreeSampleCount = sampleCount;
+		this.hypertreeCombination = combination;
+	}
 
-	// approximate MIS algorithm
-	public static int MIS(Set<HyperEdge> hyperEdgeSet) {
+	/**
+	 * Calculate the size of an independent set of the occurrences of a pattern,
+	 * approximately: the connected components of the occurrences are solved independently,
+	 * exactly if they are small and with the greedy algorithm otherwise (see
+	 * {@link ComponentSupport})
+	 *
+	 * @param hyperEdgeSet the occurrences of the pattern
+	 * @return the size of the independent set
+	 */
+	public static int MIS(OccurrenceTable hyperEdgeSet) {
 		if (hyperEdgeSet == null || hyperEdgeSet.isEmpty()) {
 			return 0;
 		}
 
-		Set<HyperEdge> independentSet = new HashSet<>();
-		Set<Integer> usedVertices = new HashSet<>();
-
-		for (HyperEdge edge : hyperEdgeSet) {
-			boolean independent = true;
-			for (Integer vertex : edge.getHyperEdge()) {
-				if (usedVertices.contains(vertex)) {
-					independent = false;
-					break;
-				}
-			}
-			if (independent) {
-				independentSet.add(edge);
-				usedVertices.addAll(edge.getHyperEdge());
-			}
-		}
-
-		return independentSet.size();
+		return ComponentSupport.maximumIndependentSet(new OccurrenceHypergraph(hyperEdgeSet));
 	}
 
-//	public static int MIS(Set<HyperEdge> hyperEdgeSet) {
-//	if (hyperEdgeSet == null || hyperEdgeSet.isEmpty()) {
-//		return 0;
-//	}
-//
-//	List<HyperEdge> edgeList = new ArrayList<>(hyperEdgeSet);
-//	int n = edgeList.size();
-//
-//	// Variable to store the size of the maximum independent edge set
-//	int maxIndepSetSize = 0;
-//
-//	// Generate all subsets of edges
-//	for (int i = 0; i < (1 << n); i++) {
-//		Set<HyperEdge> candidateSet = new HashSet<>();
-//		for (int j = 0; j < n; j++) {
-//			if ((i & (1 << j)) != 0) {
-//				candidateSet.add(edgeList.get(j));
-//			}
-//		}
-//
-//		// Check if the candidate set is an independent edge set
-//		if (isIndependentSet(candidateSet)) {
-//			maxIndepSetSize = Math.max(maxIndepSetSize, candidateSet.size());
-//		}
-//	}
-//
-//	return maxIndepSetSize;
-//	}
-//
-//	// This method checks if a set of edges forms an independent edge set
-//	private static boolean isIndependentSet(Set<HyperEdge> edgeSet) {
-//		Set<Integer> usedVertices = new HashSet<>();
-//		for (HyperEdge edge : edgeSet) {
-//			for (Integer vertex : edge.getHyperEdge()) {
-//				if (usedVertices.contains(vertex)) {
-//					return false; // Shared vertex, not independent
-//				}
-//				usedVertices.add(vertex);
-//			}
-//		}
-//		return true;
-//	}
-
-
-
 	/**
 	 * This method finds all frequent vertex labels from a graph database.
 	 * 
 	 * @param graphDB                a graph database
 	 * @param outputFrequentVertices if true, the frequent vertices will be output
 	 */
-	private void findAllOnlyOneVertex(Graph graphDB, boolean outputFrequentVertices) {
+	private void findAllOnlyOneVertex(CSRGraph graphDB, boolean outputFrequentVertices) {
 
 		frequentVertexLabels = new ArrayList<Integer>();
 
@@ -1251,13 +1507,13 @@ public class Algo {
 		Map<Integer, Set<Integer>> labelM = new HashMap<>();
 
 		// For each vertex
-		for (Vertex v : graphDB.getNonPrecalculatedAllVertices()) {
+		for (int v = 0; v < graphDB.getIdCount(); v++) {
 
 			// if it has some edges
-			if (!v.getEdgeList().isEmpty()) {
+			if (graphDB.getDegree(v) > 0) {
 
 				// Get the vertex label
-				Integer vLabel = v.getLabel();
+				Integer vLabel = graphDB.getVLabel(v);
 
 				// Store the vertex id in the map entry for this label
 				// if it is not there already
@@ -1266,7 +1522,7 @@ public class Algo {
 					set = new HashSet<>();
 					labelM.put(vLabel, set);
 				}
-				set.add(v.getId());
+				set.add(v);
 			}
 		}
 
@@ -1276,10 +1532,9 @@ public class Algo {
 
 			// if it is a frequent vertex, then record that as a frequent subgraph
 			Set<Integer> tempSupG = entry.getValue();
-			Set<HyperEdge> tempHyper = new HashSet<>();
+			OccurrenceTable tempHyper = new OccurrenceTable(1);
 			for (Integer i : tempSupG){
-				HyperEdge he = new HyperEdge(i);
-				tempHyper.add(he);
+				tempHyper.add(i);
 			}
 			int sup = tempSupG.size();
 			if (sup >= minSup) {
@@ -1287,18 +1542,14 @@ public class Algo {
 
 				// if the user wants to output one vertex frequent subgraph
 				if (outputFrequentVertices) {
-					DFSCode tempD = new DFSCode();
-					tempD.add(new ExtendedEdge(0, 0, label, label, -1));
+					DFSCode tempD = new DFSCode().extend(new ExtendedEdge(0, 0, label, label, -1));
 
 					frequentSubgraphs.add(new FrequentSubgraph(tempD, tempHyper, sup));
 				}
 			} else if (ELIMINATE_INFREQUENT_VERTICES) {
-				// for each graph
-				for (Integer graphid : tempSupG) {
-
-					graphDB.removeInfrequentLabel(label);
-					infrequentVerticesRemovedCount++;
-				}
+				// remove the edges of all the vertices having this label
+				graphDB.removeInfrequentLabel(label);
+				infrequentVerticesRemovedCount += tempSupG.size();
 			}
 		}
 
@@ -1319,6 +1570,26 @@ public class Algo {
 		System.out.println(" Total time ~ " + runtime + " s");
 		System.out.println(" Minsup : " + minSup + " graphs");
 		System.out.println(" Memory usage : " + maxmemory + " mb");
+		if (getHypertree) {
+			System.out.println(" Hypertrees : " + hypertreeSampleCount + " per candidate (" + hypertreeCombination + "), "
+					+ (hypertreeSeeded ? "seed " + hypertreeSeed : "not seeded"));
+			System.out.println(" Hypertree sampling and support time ~ " + hypertreeTime / 1000000 + " ms");
+			if (hypertreeCandidateCount > 0) {
+				System.out.println(" Variance of the hypertree supports : mean " + hypertreeVarianceSum / hypertreeCandidateCount
+						+ ", max " + hypertreeMaxVariance + " (" + hypertreeCandidateCount + " candidates)");
+			}
+		}
+		// the bounds checked before the expensive measures (see passesSupportBounds())
+		if (TIERED_SUPPORT && !supType.equals("MNI")) {
+			System.out.println(" Candidates rejected by their occurrence count : " + eliminatedByCountCount);
+			if (isBoundedByMNI()) {
+				System.out.println(" Candidates rejected by their MNI support : " + eliminatedByMNICount);
+			}
+			System.out.println(" Candidates evaluated with " + supType + " : " + expensiveSupportCount);
+		}
+		if (supType.equals("MVC-exact") || supType.equals("MIS-exact")) {
+			System.out.println(" Exact supports replaced by the greedy support (time budget) : " + exactTimeoutCount);
+		}
 
 		if(DEBUG_MODE) {
 			if (ELIMINATE_INFREQUENT_VERTEX_PAIRS || ELIMINATE_INFREQUENT_VERTICES) {
@@ -1336,6 +1607,12 @@ public class Algo {
 			if (EDGE_COUNT_PRUNING) {
 				System.out.println("  Extensions skipped (edge count pruning) : " + pruneByEdgeCountCount);
 			}
+			if (IMAGE_COUNT_PRUNING) {
+				System.out.println("  Extensions skipped (image count pruning) : " + pruneByImageCountCount);
+			}
+			if (IMAGE_THRESHOLD_PRUNING) {
+				System.out.println("  Extensions skipped (image threshold pruning) : " + pruneByImageThresholdCount);
+			}
 			if (SKIP_STRATEGY) {
 				System.out.println("  Skip strategy count : " + skipStrategyCount);
 			}
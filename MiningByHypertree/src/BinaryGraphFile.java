@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A compact binary file format for a {@link CSRGraph}, so that a large graph does not
+ * need to be parsed again from its .lg text file at every run.
+ * <p>
+ * All values are little-endian 32 bit integers:
+ * <pre>
+ * header      MAGIC, VERSION, graph id, id count n, adjacency length m (twice the edge count)
+ * int[n]      vertex labels (CSRGraph.NO_VERTEX for unused ids)
+ * int[n + 1]  offsets
+ * int[m]      targets
+ * int[m]      edge labels
+ * int[w]      listedFrom flags, 32 per integer from the lowest bit (w = (m + 31) / 32)
+ * </pre>
+ * The file is read through FileChannel.map: each array is transferred from the mapped
+ * region with a single bulk get, without any parsing or per-edge object.
+ */
+public class BinaryGraphFile {
+
+	/** the extension of binary graph files */
+	public static final String EXTENSION = ".bin";
+
+	/** the first integer of a binary graph file ("CSRG") */
+	private static final int MAGIC = 0x43535247;
+
+	/** the version of the format */
+	private static final int VERSION = 2;
+
+	/** number of integers in the header */
+	private static final int HEADER_SIZE = 5;
+
+	/** size of the buffer used for writing, in bytes */
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Convert a .lg file to a binary graph file
+	 * @param lgPath the .lg file
+	 * @param binPath the binary file to create
+	 * @throws IOException if error while reading or writing the files
+	 */
+	public static void convert(String lgPath, String binPath) throws IOException {
+		write(Algo.readGraphs(lgPath), binPath);
+	}
+
+	/**
+	 * Write a graph to a binary graph file
+	 * @param graph the graph
+	 * @param path the file to create
+	 * @throws IOException if error while writing the file
+	 */
+	public static void write(CSRGraph graph, String path) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(path, "rw");
+				FileChannel channel = file.getChannel()) {
+			file.setLength(0);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+			int n = graph.vertexLabels.length;
+			int m = graph.offsets[n];
+			int[] header = { MAGIC, VERSION, graph.getId(), n, m };
+			writeInts(channel, buffer, header, header.length);
+			writeInts(channel, buffer, graph.vertexLabels, n);
+			writeInts(channel, buffer, graph.offsets, n + 1);
+			writeInts(channel, buffer, graph.targets, m);
+			writeInts(channel, buffer, graph.edgeLabels, m);
+			int[] flags = new int[flagWords(m)];
+			for (int i = 0; i < m; i++) {
+				if (graph.listedFrom[i]) {
+					flags[i >>> 5] |= 1 << (i & 31);
+				}
+			}
+			writeInts(channel, buffer, flags, flags.length);
+		}
+	}
+
+	/**
+	 * Write the first values of an array to a channel
+	 * @param channel the channel
+	 * @param buffer a buffer, reused between calls
+	 * @param values the array
+	 * @param length the number of values to write
+	 * @throws IOException if error while writing
+	 */
+	private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int length)
+			throws IOException {
+		int position = 0;
+		while (position < length) {
+			buffer.clear();
+			int count = Math.min(length - position, buffer.capacity() / 4);
+			buffer.asIntBuffer().put(values, position, count);
+			buffer.limit(count * 4);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			position += count;
+		}
+	}
+
+	/**
+	 * Read a graph from a binary graph file
+	 * @param path the file
+	 * @return the graph
+	 * @throws IOException if error while reading the file, or if it is not a binary graph file
+	 */
+	public static CSRGraph read(String path) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(path, "r");
+				FileChannel channel = file.getChannel()) {
+			long position = 0;
+			IntBuffer header = map(channel, position, HEADER_SIZE);
+			position += HEADER_SIZE * 4L;
+			if (header.get(0) != MAGIC) {
+				throw new IOException(path + " is not a binary graph file");
+			}
+			if (header.get(1) != VERSION) {
+				throw new IOException(path + " was written by another version of BinaryGraphFile, convert it again");
+			}
+			int id = header.get(2);
+			int n = header.get(3);
+			int m = header.get(4);
+			if (n < 0 || m < 0) {
+				throw new IOException(path + " is corrupted: negative id count or adjacency length");
+			}
+			if (channel.size() != (HEADER_SIZE + n + (n + 1) + 2L * m + flagWords(m)) * 4L) {
+				throw new IOException(path + " is truncated");
+			}
+
+			int[] vertexLabels = new int[n];
+			map(channel, position, n).get(vertexLabels);
+			position += n * 4L;
+			int[] offsets = new int[n + 1];
+			map(channel, position, n + 1).get(offsets);
+			position += (n + 1) * 4L;
+			int[] targets = new int[m];
+			map(channel, position, m).get(targets);
+			position += m * 4L;
+			checkAdjacency(path, n, m, offsets, targets);
+			int[] edgeLabels = new int[m];
+			map(channel, position, m).get(edgeLabels);
+			position += m * 4L;
+			int[] flags = new int[flagWords(m)];
+			map(channel, position, flags.length).get(flags);
+			boolean[] listedFrom = new boolean[m];
+			for (int i = 0; i < m; i++) {
+				listedFrom[i] = (flags[i >>> 5] & (1 << (i & 31))) != 0;
+			}
+
+			return new CSRGraph(id, vertexLabels, offsets, targets, edgeLabels, listedFrom);
+		}
+	}
+
+	/**
+	 * Check that the offsets and targets read from a file form a valid adjacency, so that a
+	 * corrupted file is reported here rather than by an index error during the mining
+	 * @param path the file
+	 * @param n the id count
+	 * @param m the adjacency length
+	 * @param offsets the start of the neighbors of each vertex
+	 * @param targets the neighbors
+	 * @throws IOException if the offsets are not increasing from 0 to m, or if a target is not an id
+	 */
+	private static void checkAdjacency(String path, int n, int m, int[] offsets, int[] targets) throws IOException {
+		if (offsets[0] != 0 || offsets[n] != m) {
+			throw new IOException(path + " is corrupted: the offsets do not range from 0 to " + m);
+		}
+		for (int v = 0; v < n; v++) {
+			if (offsets[v] > offsets[v + 1]) {
+				throw new IOException(path + " is corrupted: the offsets decrease at vertex " + v);
+			}
+		}
+		for (int i = 0; i < m; i++) {
+			if (targets[i] < 0 || targets[i] >= n) {
+				throw new IOException(path + " is corrupted: the target " + targets[i] + " at position " + i
+						+ " is not a vertex id");
+			}
+		}
+	}
+
+	/**
+	 * Get the number of integers storing the listedFrom flags
+	 * @param m the adjacency length
+	 * @return the number of integers
+	 */
+	private static int flagWords(int m) {
+		return (int) ((m + 31L) / 32);
+	}
+
+	/**
+	 * Map a region of a file as integers
+	 * @param channel the file channel
+	 * @param position the position of the region, in bytes
+	 * @param count the number of integers in the region
+	 * @return a view of the region
+	 * @throws IOException if error while mapping the file
+	 */
+	private static IntBuffer map(FileChannel channel, long position, int count) throws IOException {
+		MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, count * 4L);
+		return region.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+
+	/**
+	 * Convert a .lg file to a binary graph file
+	 * @param args the .lg file, then the binary file to create
+	 * @throws IOException if error while reading or writing the files
+	 */
+	public static void main(String[] args) throws IOException {
+		String input = args.length > 0 ? args[0] : "Data/deezer.lg";
+		String output = args.length > 1 ? args[1] : input.substring(0, input.lastIndexOf('.')) + EXTENSION;
+
+		long t1 = System.currentTimeMillis();
+		convert(input, output);
+		long t2 = System.currentTimeMillis();
+		System.out.println("Converted " + input + " to " + output + " in " + (t2 - t1) + " ms");
+	}
+}
@@ -0,0 +1,521 @@
+import java.util.*;
+
+/**
+ * A graph stored in compressed sparse row (CSR) form.
+ * <p>
+ * Vertex ids are used directly as array indices (the ids of the .lg format are dense),
+ * so the neighbors of a vertex v are targets[offsets[v]] ... targets[offsets[v + 1] - 1],
+ * sorted by increasing id, and edgeLabels[i] is the label of the edge leading to targets[i].
+ * Contrary to {@link Graph}, no Vertex, Edge or boxed Integer is kept per vertex or per edge.
+ */
+public class CSRGraph {
+
+	/** label stored for an id that does not correspond to any vertex */
+	static final int NO_VERTEX = Integer.MIN_VALUE;
+
+	/** the graph ID */
+	private int id;
+
+	/** the label of each vertex */
+	int[] vertexLabels;
+
+	/** the start of the neighbors of each vertex in targets (one more entry than vertices) */
+	int[] offsets;
+
+	/** the neighbors of each vertex, sorted by increasing id */
+	int[] targets;
+
+	/** the label of each edge, aligned with targets */
+	int[] edgeLabels;
+
+	/**
+	 * for each position of targets, true if the edge is listed from this vertex, i.e. this
+	 * vertex is the first vertex of the edge in the input file. Each edge is thus listed from
+	 * exactly one of its two positions, which keeps the orientation of the input file.
+	 */
+	boolean[] listedFrom;
+
+	/**
+	 * the start of the label groups of each vertex in groupKeys (one more entry than vertices).
+	 * A label group holds the neighbors of a vertex having a same vertex label and edge label.
+	 */
+	int[] groupOffsets;
+
+	/** the (neighbor label, edge label) pair of each label group, packed by groupKey() and sorted per vertex */
+	long[] groupKeys;
+
+	/** the start of each label group in groupedTargets (one more entry than groups) */
+	int[] groupStarts;
+
+	/** the neighbors of each vertex, ordered by label group, then by increasing id */
+	int[] groupedTargets;
+
+	/** Map each vertex label to the list of vertex ids having this label */
+	Map<Integer, int[]> mapLabelToVertexIDs;
+
+	/** Number of vertices */
+	private int vertexCount;
+
+	/** Number of edges */
+	private int edgeCount;
+
+	/** empty integer array */
+	private static final int[] EMPTY_INTEGER_ARRAY = new int[0];
+
+	/**
+	 * Constructor
+	 * @param id a graph id
+	 * @param vertexLabels the label of each vertex, or NO_VERTEX for unused ids
+	 * @param offsets the start of the neighbors of each vertex in targets
+	 * @param targets the neighbors of each vertex, sorted by increasing id
+	 * @param edgeLabels the label of each edge, aligned with targets
+	 * @param listedFrom true for the positions of targets where an edge is listed from its first vertex
+	 */
+	public CSRGraph(int id, int[] vertexLabels, int[] offsets, int[] targets, int[] edgeLabels, boolean[] listedFrom) {
+		this.id = id;
+		this.vertexLabels = vertexLabels;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.edgeLabels = edgeLabels;
+		this.listedFrom = listedFrom;
+		this.edgeCount = offsets[vertexLabels.length] / 2;
+
+		precalculateLabelsToVertices();
+		buildLabelGroups();
+	}
+
+	/**
+	 * Constructor
+	 * @param id a graph id
+	 * @param vertexLabels the label of each vertex, or NO_VERTEX for unused ids
+	 * @param edgeV1 the first vertex of each undirected edge
+	 * @param edgeV2 the second vertex of each undirected edge
+	 * @param edgeLabels the label of each undirected edge
+	 * @param edgeCount the number of edges to read from the three edge arrays
+	 */
+	public CSRGraph(int id, int[] vertexLabels, int[] edgeV1, int[] edgeV2, int[] edgeLabels, int edgeCount) {
+		this.id = id;
+		this.vertexLabels = vertexLabels;
+		this.edgeCount = edgeCount;
+
+		buildAdjacency(edgeV1, edgeV2, edgeLabels, edgeCount);
+		precalculateLabelsToVertices();
+		buildLabelGroups();
+	}
+
+	/**
+	 * Constructor
+	 * @param c a dfs code
+	 */
+	public CSRGraph(DFSCode c) {
+		List<Integer> labels = c.getAllVLabels();
+		this.id = -1;
+		this.vertexLabels = new int[labels.size()];
+		for (int i = 0; i < vertexLabels.length; i++) {
+			vertexLabels[i] = labels.get(i);
+		}
+
+		int[] edgeV1 = new int[c.size()];
+		int[] edgeV2 = new int[c.size()];
+		int[] edgeLabels = new int[c.size()];
+		int i = 0;
+		for (ExtendedEdge ee : c.getEeL()) {
+			edgeV1[i] = ee.getV1();
+			edgeV2[i] = ee.getV2();
+			edgeLabels[i] = ee.getEdgeLabel();
+			i++;
+		}
+		this.edgeCount = c.size();
+
+		buildAdjacency(edgeV1, edgeV2, edgeLabels, edgeCount);
+		precalculateLabelsToVertices();
+		buildLabelGroups();
+	}
+
+	/**
+	 * Fill the CSR arrays from a list of undirected edges
+	 * @param edgeV1 the first vertex of each edge
+	 * @param edgeV2 the second vertex of each edge
+	 * @param labels the label of each edge
+	 * @param count the number of edges
+	 */
+	private void buildAdjacency(int[] edgeV1, int[] edgeV2, int[] labels, int count) {
+		int idCount = vertexLabels.length;
+
+		// count the degree of each vertex
+		offsets = new int[idCount + 1];
+		for (int i = 0; i < count; i++) {
+			offsets[edgeV1[i] + 1]++;
+			offsets[edgeV2[i] + 1]++;
+		}
+		for (int v = 0; v < idCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+
+		// place each edge in the lists of both of its vertices
+		targets = new int[offsets[idCount]];
+		edgeLabels = new int[offsets[idCount]];
+		listedFrom = new boolean[offsets[idCount]];
+		int[] next = Arrays.copyOf(offsets, idCount);
+		for (int i = 0; i < count; i++) {
+			int v1 = edgeV1[i];
+			int v2 = edgeV2[i];
+			listedFrom[next[v1]] = true;
+			targets[next[v1]] = v2;
+			edgeLabels[next[v1]++] = labels[i];
+			targets[next[v2]] = v1;
+			edgeLabels[next[v2]++] = labels[i];
+		}
+
+		sortNeighbors(offsets, targets, edgeLabels, listedFrom);
+	}
+
+	/**
+	 * Sort the neighbors of each vertex by increasing id, keeping the edge labels and the
+	 * listedFrom flags aligned.
+	 * @param offsets the start of the neighbors of each vertex
+	 * @param targets the neighbors
+	 * @param labels the edge labels
+	 * @param listedFrom the listedFrom flags
+	 */
+	private static void sortNeighbors(int[] offsets, int[] targets, int[] labels, boolean[] listedFrom) {
+		long[] buffer = new long[0];
+		long[] listed = new long[0];
+		for (int v = 0; v < offsets.length - 1; v++) {
+			int start = offsets[v];
+			int degree = offsets[v + 1] - start;
+			if (degree < 2) {
+				continue;
+			}
+			if (buffer.length < degree) {
+				buffer = new long[degree];
+				listed = new long[degree];
+			}
+			// pack (neighbor, label) so that a single sort keeps both arrays aligned
+			int listedCount = 0;
+			for (int i = 0; i < degree; i++) {
+				buffer[i] = ((long) targets[start + i] << 32) | (labels[start + i] & 0xFFFFFFFFL);
+				if (listedFrom[start + i]) {
+					listed[listedCount++] = buffer[i];
+				}
+			}
+			Arrays.sort(buffer, 0, degree);
+			// the flags of equal (neighbor, label) pairs are interchangeable, so they are
+			// restored by merging the sorted pairs of the listed edges into the sorted pairs
+			Arrays.sort(listed, 0, listedCount);
+			int k = 0;
+			for (int i = 0; i < degree; i++) {
+				targets[start + i] = (int) (buffer[i] >>> 32);
+				labels[start + i] = (int) buffer[i];
+				listedFrom[start + i] = k < listedCount && listed[k] == buffer[i];
+				if (listedFrom[start + i]) {
+					k++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Partition the neighbors of each vertex by (neighbor label, edge label), so that the
+	 * neighbors reached by a given edge of a pattern can be enumerated without filtering.
+	 * Within a group, neighbors keep their increasing id order.
+	 */
+	private void buildLabelGroups() {
+		int idCount = vertexLabels.length;
+		groupOffsets = new int[idCount + 1];
+		groupedTargets = new int[targets.length];
+		long[] keys = new long[targets.length];
+		int[] starts = new int[targets.length + 1];
+		int groupCount = 0;
+
+		long[] buffer = new long[0];
+		int[] next = new int[0];
+		for (int v = 0; v < idCount; v++) {
+			int start = offsets[v];
+			int degree = offsets[v + 1] - start;
+			if (buffer.length < degree) {
+				buffer = new long[degree];
+				next = new int[degree];
+			}
+
+			// find the distinct keys of the neighbors of v
+			for (int i = 0; i < degree; i++) {
+				buffer[i] = groupKey(vertexLabels[targets[start + i]], edgeLabels[start + i]);
+			}
+			Arrays.sort(buffer, 0, degree);
+			int distinct = 0;
+			for (int i = 0; i < degree; i++) {
+				if (i == 0 || buffer[i] != buffer[i - 1]) {
+					buffer[distinct++] = buffer[i];
+				}
+			}
+
+			// count the size of each group
+			Arrays.fill(next, 0, distinct, 0);
+			for (int i = 0; i < degree; i++) {
+				long key = groupKey(vertexLabels[targets[start + i]], edgeLabels[start + i]);
+				next[Arrays.binarySearch(buffer, 0, distinct, key)]++;
+			}
+			int position = start;
+			for (int k = 0; k < distinct; k++) {
+				keys[groupCount + k] = buffer[k];
+				starts[groupCount + k] = position;
+				int size = next[k];
+				next[k] = position;
+				position += size;
+			}
+
+			// place the neighbors, visiting them by increasing id so that each group stays sorted
+			for (int i = 0; i < degree; i++) {
+				long key = groupKey(vertexLabels[targets[start + i]], edgeLabels[start + i]);
+				groupedTargets[next[Arrays.binarySearch(buffer, 0, distinct, key)]++] = targets[start + i];
+			}
+			groupCount += distinct;
+			groupOffsets[v + 1] = groupCount;
+		}
+		starts[groupCount] = targets.length;
+
+		groupKeys = Arrays.copyOf(keys, groupCount);
+		groupStarts = Arrays.copyOf(starts, groupCount + 1);
+	}
+
+	/**
+	 * Pack a neighbor label and an edge label into the key of a label group
+	 * @param neighborLabel the label of the neighbor
+	 * @param edgeLabel the label of the edge
+	 * @return the key
+	 */
+	private static long groupKey(int neighborLabel, int edgeLabel) {
+		return ((long) neighborLabel << 32) | (edgeLabel & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Find the neighbors of a vertex having a given label and reached by an edge with a given label.
+	 * They are groupedTargets[groupStarts[group]] ... groupedTargets[groupStarts[group + 1] - 1].
+	 * @param v the vertex
+	 * @param neighborLabel the label of the neighbors
+	 * @param edgeLabel the label of the edges
+	 * @return the label group, or -1 if v has no such neighbor
+	 */
+	public int findLabelGroup(int v, int neighborLabel, int edgeLabel) {
+		int index = Arrays.binarySearch(groupKeys, groupOffsets[v], groupOffsets[v + 1],
+				groupKey(neighborLabel, edgeLabel));
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Precalculate the list of vertices having each label
+	 */
+	private void precalculateLabelsToVertices() {
+		Map<Integer, Integer> labelCounts = new HashMap<Integer, Integer>();
+		vertexCount = 0;
+		for (int label : vertexLabels) {
+			if (label != NO_VERTEX) {
+				labelCounts.merge(label, 1, Integer::sum);
+				vertexCount++;
+			}
+		}
+
+		mapLabelToVertexIDs = new HashMap<Integer, int[]>();
+		Map<Integer, Integer> filled = new HashMap<Integer, Integer>();
+		for (int v = 0; v < vertexLabels.length; v++) {
+			int label = vertexLabels[v];
+			if (label == NO_VERTEX) {
+				continue;
+			}
+			int[] vertexIDs = mapLabelToVertexIDs.get(label);
+			if (vertexIDs == null) {
+				vertexIDs = new int[labelCounts.get(label)];
+				mapLabelToVertexIDs.put(label, vertexIDs);
+			}
+			int position = filled.getOrDefault(label, 0);
+			vertexIDs[position] = v;
+			filled.put(label, position + 1);
+		}
+	}
+
+	/**
+	 * Remove the edges of all vertices having a given label.
+	 * The vertices themselves are kept, without any neighbor.
+	 * @param label the label
+	 */
+	public void removeInfrequentLabel(int label) {
+		boolean[] removed = new boolean[targets.length];
+		for (int v = 0; v < vertexLabels.length; v++) {
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (vertexLabels[v] == label || vertexLabels[targets[i]] == label) {
+					removed[i] = true;
+				}
+			}
+		}
+		removeEdges(removed);
+	}
+
+	/**
+	 * Remove some edges from this graph.
+	 * An edge must be removed from the lists of both of its vertices.
+	 * @param removed for each position of targets, true if the edge must be removed
+	 */
+	public void removeEdges(boolean[] removed) {
+		int kept = 0;
+		for (boolean r : removed) {
+			if (!r) {
+				kept++;
+			}
+		}
+
+		int[] newOffsets = new int[offsets.length];
+		int[] newTargets = new int[kept];
+		int[] newEdgeLabels = new int[kept];
+		boolean[] newListedFrom = new boolean[kept];
+		int j = 0;
+		for (int v = 0; v < vertexLabels.length; v++) {
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (!removed[i]) {
+					newTargets[j] = targets[i];
+					newEdgeLabels[j] = edgeLabels[i];
+					newListedFrom[j] = listedFrom[i];
+					j++;
+				}
+			}
+			newOffsets[v + 1] = j;
+		}
+
+		offsets = newOffsets;
+		targets = newTargets;
+		edgeLabels = newEdgeLabels;
+		listedFrom = newListedFrom;
+		edgeCount = kept / 2;
+		buildLabelGroups();
+	}
+
+	/**
+	 * Get all vertice IDs having a given label
+	 * @param targetLabel the label
+	 * @return the list of vertice IDs
+	 */
+	public int[] findAllWithLabel(int targetLabel) {
+		int[] vertexIds = mapLabelToVertexIDs.get(targetLabel);
+		if (vertexIds == null) {
+			return EMPTY_INTEGER_ARRAY;
+		}
+		return vertexIds;
+	}
+
+	/**
+	 * Get the label of a vertex
+	 * @param v the vertex id
+	 * @return the label
+	 */
+	public int getVLabel(int v) {
+		return vertexLabels[v];
+	}
+
+	/**
+	 * Get the number of neighbors of a vertex
+	 * @param v the vertex id
+	 * @return the degree
+	 */
+	public int getDegree(int v) {
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/**
+	 * Get the label of the edge between two vertex. If they are joined by parallel edges,
+	 * the smallest label is returned (see indexOfEdge(int, int, int) to find a given label).
+	 * @param v1 the id of a vertex
+	 * @param v2 the id of another vertex
+	 * @return the label if the edge exists, or otherwise -1.
+	 */
+	public int getEdgeLabel(int v1, int v2) {
+		int index = indexOfEdge(v1, v2);
+		return index < 0 ? -1 : edgeLabels[index];
+	}
+
+	/**
+	 * Check if two vertices are neighbors
+	 * @param v1 the first vertex
+	 * @param v2 the second vertex
+	 * @return true if they are neighbors
+	 */
+	public boolean isNeighboring(int v1, int v2) {
+		return indexOfEdge(v1, v2) >= 0;
+	}
+
+	/**
+	 * Find the edge between two vertices, by binary search in the neighbors of the first one.
+	 * If they are joined by parallel edges, the first one, having the smallest label, is found.
+	 * @param v1 the first vertex
+	 * @param v2 the second vertex
+	 * @return the position of the edge in targets and edgeLabels, or -1 if they are not neighbors
+	 */
+	public int indexOfEdge(int v1, int v2) {
+		int index = Arrays.binarySearch(targets, offsets[v1], offsets[v1 + 1], v2);
+		if (index < 0) {
+			return -1;
+		}
+		while (index > offsets[v1] && targets[index - 1] == v2) {
+			index--;
+		}
+		return index;
+	}
+
+	/**
+	 * Find the edge with a given label between two vertices, by binary search in the
+	 * neighbors of the first one, which are sorted by neighbor and then by edge label
+	 * (see sortNeighbors()), so that parallel edges with other labels are skipped
+	 * @param v1 the first vertex
+	 * @param v2 the second vertex
+	 * @param edgeLabel the label of the edge
+	 * @return the position of the edge in targets and edgeLabels, or -1 if there is no such edge
+	 */
+	public int indexOfEdge(int v1, int v2, int edgeLabel) {
+		long key = ((long) v2 << 32) | (edgeLabel & 0xFFFFFFFFL);
+		int low = offsets[v1];
+		int high = offsets[v1 + 1] - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleKey = ((long) targets[middle] << 32) | (edgeLabels[middle] & 0xFFFFFFFFL);
+			if (middleKey < key) {
+				low = middle + 1;
+			} else if (middleKey > key) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the size of the vertex id space (the largest vertex id plus one)
+	 * @return the number of ids
+	 */
+	public int getIdCount() {
+		return vertexLabels.length;
+	}
+
+	/**
+	 * Get the number of vertex
+	 * @return the number of vertex
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Get the number of edges
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Get the graph id
+	 * @return the id
+	 */
+	public int getId() {
+		return id;
+	}
+}
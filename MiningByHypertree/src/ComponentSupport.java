@@ -0,0 +1,154 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The vertex cover and independent set supports of a pattern, computed on the connected
+ * components of its occurrence hypergraph.
+ * <p>
+ * Two occurrences in different components share no vertex, so a minimum cover (or a
+ * maximum packing) of the hypergraph is the union of those of its components, and the
+ * support is the sum of the supports of the components. The components are solved
+ * independently, on the common fork-join pool when there is enough work. A component of
+ * at most EXACT_COMPONENT_SIZE occurrences is solved exactly, and a larger one with the
+ * greedy algorithm, whose result on a component is the same as on the whole hypergraph.
+ * The support is therefore never worse than the greedy support of the whole hypergraph.
+ * The exact search of a component is limited to EXACT_NODE_BUDGET nodes rather than to a
+ * time, so that the support of a pattern is the same from one run to the next.
+ */
+public class ComponentSupport {
+
+	/** the largest number of occurrences of a component solved exactly */
+	static final int EXACT_COMPONENT_SIZE = 32;
+
+	/** the maximum number of search nodes of the exact cover or packing of a component */
+	private static final long EXACT_NODE_BUDGET = 1 << 16;
+
+	/** the number of incidences below which a range of components is solved by a single task */
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+	/**
+	 * Calculate the size of a vertex cover of a hypergraph, component by component
+	 * @param hypergraph the hypergraph of the occurrences of a pattern
+	 * @return the size of the cover
+	 */
+	public static int minimumVertexCover(OccurrenceHypergraph hypergraph) {
+		return solve(hypergraph, true);
+	}
+
+	/**
+	 * Calculate the size of an independent edge set of a hypergraph, component by component
+	 * @param hypergraph the hypergraph of the occurrences of a pattern
+	 * @return the size of the independent set
+	 */
+	public static int maximumIndependentSet(OccurrenceHypergraph hypergraph) {
+		return solve(hypergraph, false);
+	}
+
+	/**
+	 * Solve all the components of a hypergraph, in parallel if they are large enough
+	 * @param hypergraph the hypergraph
+	 * @param cover true for the vertex cover, false for the independent set
+	 * @return the sum of the results of the components
+	 */
+	private static int solve(OccurrenceHypergraph hypergraph, boolean cover) {
+		int[][] components = hypergraph.getComponents();
+		// the number of incidences of the components before each component
+		long[] work = new long[components.length + 1];
+		for (int c = 0; c < components.length; c++) {
+			int[] component = components[c];
+			work[c + 1] = work[c];
+			if (component.length > 1) {
+				for (int e : component) {
+					work[c + 1] += hypergraph.edgeOffsets[e + 1] - hypergraph.edgeOffsets[e];
+				}
+			}
+		}
+		ComponentTask task = new ComponentTask(hypergraph, components, work, 0, components.length, cover);
+		return work[components.length] < SEQUENTIAL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+	}
+
+	/**
+	 * Solve a component
+	 * @param hypergraph the hypergraph
+	 * @param component the hyperedges of the component
+	 * @param cover true for the vertex cover, false for the independent set
+	 * @return the size of the cover or of the independent set of the component
+	 */
+	private static int solveComponent(OccurrenceHypergraph hypergraph, int[] component, boolean cover) {
+		// a single occurrence needs one vertex, and is independent
+		if (component.length == 1) {
+			return 1;
+		}
+		OccurrenceHypergraph sub = component.length == hypergraph.getEdgeCount() ? hypergraph : hypergraph.getSubHypergraph(component);
+		int size = -1;
+		if (component.length <= EXACT_COMPONENT_SIZE) {
+			size = cover ? MinimumVertexCover.exactWithinNodes(sub, EXACT_NODE_BUDGET)
+					: MaximumIndependentEdgeSet.exactWithinNodes(sub, EXACT_NODE_BUDGET);
+		}
+		if (size >= 0) {
+			return size;
+		}
+		return cover ? MinimumVertexCover.greedy(sub) : MaximumIndependentEdgeSet.greedy(sub);
+	}
+
+	/**
+	 * The task solving a range of components, split in two halves of about the same number
+	 * of incidences until a range is small enough
+	 */
+	private static class ComponentTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		/** the hypergraph */
+		private final OccurrenceHypergraph hypergraph;
+		/** the hyperedges of each component */
+		private final int[][] components;
+		/** the number of incidences of the components before each component */
+		private final long[] work;
+		/** the first component of the range */
+		private final int from;
+		/** one more than the last component of the range */
+		private final int to;
+		/** true for the vertex cover, false for the independent set */
+		private final boolean cover;
+
+		/**
+		 * Constructor
+		 * @param hypergraph the hypergraph
+		 * @param components the hyperedges of each component
+		 * @param work the number of incidences of the components before each component
+		 * @param from the first component of the range
+		 * @param to one more than the last component of the range
+		 * @param cover true for the vertex cover, false for the independent set
+		 */
+		ComponentTask(OccurrenceHypergraph hypergraph, int[][] components, long[] work, int from, int to, boolean cover) {
+			this.hypergraph = hypergraph;
+			this.components = components;
+			this.work = work;
+			this.from = from;
+			this.to = to;
+			this.cover = cover;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from == 1 || work[to] - work[from] < SEQUENTIAL_THRESHOLD) {
+				int sum = 0;
+				for (int c = from; c < to; c++) {
+					sum += solveComponent(hypergraph, components[c], cover);
+				}
+				return sum;
+			}
+
+			// split where half of the incidences are on each side
+			long half = (work[from] + work[to]) / 2;
+			int middle = from + 1;
+			while (middle < to - 1 && work[middle] < half) {
+				middle++;
+			}
+			ComponentTask left = new ComponentTask(hypergraph, components, work, from, middle, cover);
+			left.fork();
+			int right = new ComponentTask(hypergraph, components, work, middle, to, cover).compute();
+			return left.join() + right;
+		}
+	}
+}
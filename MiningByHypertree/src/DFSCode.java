@@ -1,52 +1,95 @@
-import java.io.*;
 import java.util.*;
 
-public class DFSCode implements Serializable{
-	
-    /** Serial UID */
-	private static final long serialVersionUID = -3332379071310578036L;
+/**
+ * A DFS code, as a persistent list of extended edges: a DFS code is its parent DFS code
+ * (all its edges but the last one) followed by its last edge. Extending a DFS code with
+ * extend() creates a new code sharing the edges of its parent, without copying them, and
+ * a DFS code never changes once created, so that it can be shared by all its extensions.
+ * <p>
+ * The rightmost path is kept as a small array of vertices, shared with the parent when the
+ * last edge is a backward edge. The list of the edges is only built if getEeL() or getAt()
+ * is called.
+ */
+public class DFSCode {
+
+    /** the DFS code without the last edge, or null for the empty DFS code */
+    private final DFSCode parent;
+
+    /** the last edge, or null for the empty DFS code */
+    private final ExtendedEdge last;
 	
 	/**    maintain rightmost child and current rightmost path */
-    private int rightMost;
+    private final int rightMost;
     
-    private Stack<Integer> rightMostPath;
+    /** the vertices of the rightmost path, from the first vertex to the rightmost vertex */
+    private final int[] rightMostPath;
     
+    /** the edges, built from the parents when first needed */
     private List<ExtendedEdge> eeL;
+
+    /** the vertex label of each column of the occurrences, built when first needed */
+    private int[] columnLabels;
     
-    private int size;
+    private final int size;
 
     /**
-     * Constructor
+     * Constructor of the empty DFS code
      */
     public DFSCode() {
+        parent = null;
+        last = null;
         rightMost = -1;
         size = 0;
-        rightMostPath = new Stack<>();
-        eeL = new LinkedList<>();
+        rightMostPath = new int[0];
+    }
+
+    /**
+     * Constructor of the extension of a DFS code by an edge
+     * @param parent the DFS code
+     * @param ee the edge
+     */
+    private DFSCode(DFSCode parent, ExtendedEdge ee) {
+        this.parent = parent;
+        this.last = ee;
+        this.size = parent.size + 1;
+        if (parent.size == 0) {
+            rightMost = 1;
+            rightMostPath = new int[] {0, 1};
+        }
+        else {
+            int v1 = ee.getV1();
+            int v2 = ee.getV2();
+            if (v1 < v2) {
+                //if forward edge, need to modify right most vertex and right most path
+                rightMost = v2;
+                int length = parent.rightMostPath.length;
+                while (length > 0 && parent.rightMostPath[length - 1] > v1) {
+                    length--;
+                }
+                rightMostPath = Arrays.copyOf(parent.rightMostPath, length + 1);
+                rightMostPath[length] = v2;
+            }
+            else {
+                //if backward edge, no change
+                rightMost = parent.rightMost;
+                rightMostPath = parent.rightMostPath;
+            }
+        }
     }
 
     /**
-     * Make a copy of a DFS code
-     * @return a copy
-     * @throws IOException
-     * @throws ClassNotFoundException
+     * Get the DFS code made of this DFS code followed by an edge. This DFS code is not
+     * changed, and its edges are shared by the new DFS code.
+     * @param ee the edge
+     * @return the new DFS code
      */
-    public DFSCode copy() throws IOException, ClassNotFoundException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ObjectOutputStream oos = new ObjectOutputStream(baos);
-        oos.writeObject(this);
-        oos.close();
-
-        ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-        ObjectInputStream ois = new ObjectInputStream(bais);
-        DFSCode clonedObj = (DFSCode) ois.readObject();
-        ois.close();
-        return clonedObj;
+    public DFSCode extend(ExtendedEdge ee) {
+        return new DFSCode(this, ee);
     }
 
     public boolean notPreOfRM(int v) {
-        if(rightMostPath.size() <= 1) return true;
-        return v != rightMostPath.elementAt(rightMostPath.size() - 2);
+        if(rightMostPath.length <= 1) return true;
+        return v != rightMostPath[rightMostPath.length - 2];
     }
 
     /**
@@ -56,7 +99,7 @@ public class DFSCode implements Serializable{
     public List<Integer> getAllVLabels() {
         List<Integer> labels = new ArrayList<>();
         Map<Integer, Integer> map = new LinkedHashMap<>();
-        for (ExtendedEdge ee : eeL) {
+        for (ExtendedEdge ee : getEeL()) {
             int v1 = ee.getV1();
             int v1L = ee.getvLabel1();
             int v2 = ee.getV2();
@@ -73,48 +116,23 @@ public class DFSCode implements Serializable{
         return labels;
     }
 
-    /**
-     * Add an edge to the DFS code
-     * @param ee the edge
-     */
-    public void add(ExtendedEdge ee) {
-        if (size == 0) {
-            rightMost = 1;
-            rightMostPath.push(0);
-            rightMostPath.push(1);
-        }
-        else {
-            int v1 = ee.getV1();
-            int v2 = ee.getV2();
-            if (v1 < v2) {
-                //if forward edge, need to modify right most vertex and right most path
-                rightMost = v2;
-                while (!rightMostPath.isEmpty() && rightMostPath.peek() > v1) {
-                    rightMostPath.pop();
-                }
-                rightMostPath.push(v2);
-            }
-            else {
-                //if backward edge, no change
-            }
-        }
-        eeL.add(ee);
-        this.size++;
-    }
-
-
     public ExtendedEdge getAt(int i) {
-        return eeL.get(i);
+        return getEeL().get(i);
     }
 
     public boolean onRightMostPath(int v) {
-        return rightMostPath.contains(v);
+        for (int u : rightMostPath) {
+            if (u == v) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean containEdge(int v1, int v2) {
-        for (ExtendedEdge ee : eeL) {
-            int eeV1 = ee.getV1();
-            int eeV2 = ee.getV2();
+        for (DFSCode c = this; c.last != null; c = c.parent) {
+            int eeV1 = c.last.getV1();
+            int eeV2 = c.last.getV2();
             if ((eeV1 == v1 && eeV2 == v2) || (eeV1 == v2 && eeV2 == v1))
                 return true;
         }
@@ -126,26 +144,62 @@ public class DFSCode implements Serializable{
     }
 
     public boolean isEmpty() {
-        return eeL.isEmpty();
+        return size == 0;
     }
 
     public int getRightMost() {
         return rightMost;
     }
 
-    public Iterable<Integer> getRightMostPath() {
+    /**
+     * Get the vertices of the rightmost path
+     * @return the vertices, from the first vertex to the rightmost vertex (not to be modified)
+     */
+    public int[] getRightMostPath() {
         return rightMostPath;
     }
 
+    /**
+     * Get the edges of the DFS code
+     * @return the edges, in order (not to be modified)
+     */
     public List<ExtendedEdge> getEeL() {
+        if (eeL == null) {
+            ExtendedEdge[] edges = new ExtendedEdge[size];
+            int i = size;
+            for (DFSCode c = this; c.last != null; c = c.parent) {
+                edges[--i] = c.last;
+            }
+            eeL = Collections.unmodifiableList(Arrays.asList(edges));
+        }
         return eeL;
     }
 
+    /**
+     * Get the vertex label of each column of the occurrences of this DFS code. The first
+     * column holds the first vertex of the first edge, and each edge adds a column holding
+     * its second vertex (a vertex already in the occurrence, for a backward edge).
+     * The labels are built from those of the parent, once.
+     * @return the label of each column (not to be modified)
+     */
+    public int[] getColumnLabels() {
+        if (columnLabels == null) {
+            if (parent.size == 0) {
+                columnLabels = new int[] {last.getvLabel1(), last.getvLabel2()};
+            }
+            else {
+                columnLabels = Arrays.copyOf(parent.getColumnLabels(), size + 1);
+                columnLabels[size] = last.getvLabel2();
+            }
+        }
+        return columnLabels;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("DFSCode: ");
-        for (ExtendedEdge ee : eeL)
+        for (ExtendedEdge ee : getEeL())
             sb.append(ee).append(" ");
         return sb.toString();
     }
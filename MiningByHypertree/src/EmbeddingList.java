@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * The isomorphisms of a DFS code in a graph, stored as a level of a trie shared with
+ * the isomorphisms of the prefixes of the DFS code.
+ * <p>
+ * An isomorphism of a DFS code extends an isomorphism of its parent DFS code by one edge,
+ * so a level only keeps, for each isomorphism, the position of the parent isomorphism in
+ * the previous level and the vertex of the graph mapped by the new edge (nothing for a
+ * backward edge, which maps no new vertex). The memory used by a level thus grows with
+ * the number of isomorphisms only, not with the size of the DFS code.
+ */
+public class EmbeddingList {
+
+	/** the isomorphisms of the parent DFS code, or null for the first vertex */
+	private final EmbeddingList parent;
+
+	/** the number of vertices of the DFS code mapped by each isomorphism */
+	private final int vertexCount;
+
+	/** the position of the parent isomorphism of each isomorphism (null for the first vertex) */
+	private int[] parents;
+
+	/** the vertex mapped to the last vertex of the DFS code by each isomorphism (null for a backward edge) */
+	private int[] vertices;
+
+	/** the number of isomorphisms */
+	private int size;
+
+	/** initial capacity of a level */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Constructor of the isomorphisms of a single vertex
+	 * @param vertices the vertices of the graph mapped to the vertex (not copied, and never modified)
+	 */
+	public EmbeddingList(int[] vertices) {
+		this.parent = null;
+		this.vertexCount = 1;
+		this.vertices = vertices;
+		this.size = vertices.length;
+	}
+
+	/**
+	 * Constructor of an empty list of isomorphisms extending those of a parent DFS code
+	 * @param parent the isomorphisms of the parent DFS code
+	 * @param forward true if the new edge is a forward edge, mapping a new vertex
+	 */
+	public EmbeddingList(EmbeddingList parent, boolean forward) {
+		this.parent = parent;
+		this.vertexCount = forward ? parent.vertexCount + 1 : parent.vertexCount;
+		this.parents = new int[INITIAL_CAPACITY];
+		this.vertices = forward ? new int[INITIAL_CAPACITY] : null;
+	}
+
+	/**
+	 * Add an isomorphism extending a parent isomorphism by a forward edge
+	 * @param parentIndex the position of the parent isomorphism
+	 * @param vertex the vertex of the graph mapped to the new vertex
+	 */
+	public void add(int parentIndex, int vertex) {
+		if (size == parents.length) {
+			parents = Arrays.copyOf(parents, size * 2);
+			vertices = Arrays.copyOf(vertices, size * 2);
+		}
+		parents[size] = parentIndex;
+		vertices[size++] = vertex;
+	}
+
+	/**
+	 * Add an isomorphism extending a parent isomorphism by a backward edge
+	 * @param parentIndex the position of the parent isomorphism
+	 */
+	public void add(int parentIndex) {
+		if (size == parents.length) {
+			parents = Arrays.copyOf(parents, size * 2);
+		}
+		parents[size++] = parentIndex;
+	}
+
+	/**
+	 * Get an isomorphism, by following the parent positions up to the first vertex
+	 * @param index the position of the isomorphism
+	 * @param row an array of at least getVertexCount() entries, reused between calls
+	 * @return row, where the vertex of the graph mapped to the i-th vertex of the DFS code is at position i
+	 */
+	public int[] get(int index, int[] row) {
+		EmbeddingList list = this;
+		while (list != null) {
+			if (list.vertices != null) {
+				row[list.vertexCount - 1] = list.vertices[index];
+			}
+			if (list.parents != null) {
+				index = list.parents[index];
+			}
+			list = list.parent;
+		}
+		return row;
+	}
+
+	/**
+	 * Get the number of isomorphisms
+	 * @return the number of isomorphisms
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of vertices of the DFS code mapped by each isomorphism
+	 * @return the number of vertices
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+}
@@ -1,12 +1,10 @@
-import java.util.Set;
-
 public class FrequentSubgraph implements Comparable<FrequentSubgraph>{
 	
 	/** dfs code */
     public DFSCode dfsCode;
     
-    /** the ids of graphs where the subgraph appears */
-    public Set<HyperEdge> hyperEdges;
+    /** the occurrences of the subgraph */
+    public OccurrenceTable occurrences;
     
     /** the support of the subgraph */
     public int support;
@@ -14,12 +12,12 @@ public class FrequentSubgraph implements Comparable<FrequentSubgraph>{
     /**
      * Constructor
      * @param dfsCode a dfs code
-     * @param hyperedges the ids of graphs where the subgraph appears
+     * @param occurrences the occurrences of the subgraph
      * @param support the support of the subgraph
      */
-    public FrequentSubgraph(DFSCode dfsCode, Set<HyperEdge> hyperedges, int support){
+    public FrequentSubgraph(DFSCode dfsCode, OccurrenceTable occurrences, int support){
     	this.dfsCode = dfsCode;
-    	this.hyperEdges = hyperedges;
+    	this.occurrences = occurrences;
     	this.support = support;
     }
 
@@ -1,69 +1,384 @@
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class HypergraphPrim {
-    public static Set<HyperEdge> Prim(Set<HyperEdge> hyperEdgeSet) {
-        Set<HyperEdge> hypertree = new HashSet<>();
-        Set<Integer> visited = new HashSet<>();
-        Map<Integer, List<HyperEdge>> graph = new HashMap<>();
-        List<HyperEdge> edgeList = new ArrayList<>();
-        Random random = new Random();
-
-        // Construct the graph
-        for (HyperEdge edge : hyperEdgeSet) {
-            for (Integer vertex : edge.getHyperEdge()) {
-                graph.putIfAbsent(vertex, new ArrayList<>());
-                graph.get(vertex).add(edge);
-            }
+
+    /**
+     * the number of passes over the occurrences left out of an extended hypertree, before
+     * the Prim algorithm takes over
+     */
+    private static final int MAX_REPAIR_PASSES = 4;
+
+    /**
+     * Build a random spanning hypertree of the occurrences of a pattern
+     *
+     * @param hyperEdgeSet the occurrences of a pattern
+     * @return the occurrences of the hypertree, in the order in which they were added
+     * @see #randomHypertree(OccurrenceTable)
+     */
+    public static OccurrenceTable Prim(OccurrenceTable hyperEdgeSet) {
+        return getRows(hyperEdgeSet, randomHypertree(hyperEdgeSet));
+    }
+
+    /**
+     * Build a random spanning hypertree of the occurrences of a pattern, with a randomized
+     * Prim algorithm: starting from a random vertex, repeatedly remove a random occurrence
+     * from the frontier (the occurrences holding a reached vertex), and add it to the
+     * hypertree if it holds a vertex that is not reached yet.
+     * <p>
+     * The occurrence is drawn uniformly from the frontier, and removed by moving the last
+     * occurrence of the frontier to its place. The reached vertices and the occurrences in
+     * the frontier or in the hypertree are flags indexed by the numbers of an
+     * {@link OccurrenceHypergraph}, so the whole construction takes time linear in the
+     * number of incidences.
+     *
+     * @param hyperEdgeSet the occurrences of a pattern
+     * @return the positions of the occurrences of the hypertree, in the order in which they
+     *         were added
+     */
+    public static int[] randomHypertree(OccurrenceTable hyperEdgeSet) {
+        return randomHypertree(hyperEdgeSet, new Random());
+    }
+
+    /**
+     * Build a random spanning hypertree of the occurrences of a pattern, drawing the random
+     * choices from a given generator, so that a seeded generator gives the same hypertree
+     *
+     * @param hyperEdgeSet the occurrences of a pattern
+     * @param random       the random generator
+     * @return the positions of the occurrences of the hypertree, in the order in which they
+     *         were added
+     * @see #randomHypertree(OccurrenceTable)
+     */
+    public static int[] randomHypertree(OccurrenceTable hyperEdgeSet, Random random) {
+        if (hyperEdgeSet.isEmpty()) {
+            return new int[0];
         }
+        Frontier frontier = new Frontier(new OccurrenceHypergraph(hyperEdgeSet), random);
 
         // Get a random start node
-        List<Integer> vertices = new ArrayList<>(graph.keySet());
-        int startNode = vertices.get(random.nextInt(vertices.size()));
-
-        visited.add(startNode);
-        edgeList.addAll(graph.get(startNode));
-        Collections.shuffle(edgeList, random);
-
-        while (!edgeList.isEmpty()) {
-            HyperEdge edge = edgeList.remove(random.nextInt(edgeList.size()));
-            boolean hasUnvisited = false;
-            for (Integer vertex : edge.getHyperEdge()) {
-                if (!visited.contains(vertex)) {
-                    hasUnvisited = true;
-                    break;
+        frontier.reach(frontier.random.nextInt(frontier.h.getVertexCount()));
+        frontier.grow();
+        return Arrays.copyOf(frontier.rows, frontier.rowCount);
+    }
+
+    /**
+     * Build a spanning hypertree of the occurrences of a pattern from the hypertree of its
+     * parent pattern, whose occurrences they extend.
+     * <p>
+     * The occurrences extending those of the parent hypertree are taken first, in the order
+     * of the parent hypertree, when they hold a reached vertex (except the first one) and a
+     * vertex that is not reached yet. As the parent hypertree is connected, this keeps most
+     * of its shape without building the incidences of the occurrences. The hypertree is then
+     * repaired by passes over the other occurrences, in a random order, taking each one
+     * holding a reached and an unreached vertex. If the passes keep finding occurrences, the
+     * hypertree is completed with the frontier of the Prim algorithm, over the incidences of
+     * the occurrences left out only.
+     *
+     * @param parent          the occurrences of the parent pattern
+     * @param parentHypertree the positions of the occurrences of the parent hypertree
+     * @param hyperEdgeSet    the occurrences of the pattern, added as extensions of those of
+     *                        the parent (see {@link OccurrenceTable#hasParentRows()})
+     * @param visited         an empty set of vertices, used for the reached vertices, and
+     *                        cleared before returning
+     * @return the positions of the occurrences of the hypertree, in the order in which they
+     *         were added
+     */
+    public static int[] extendHypertree(OccurrenceTable parent, int[] parentHypertree,
+            OccurrenceTable hyperEdgeSet, VertexBitSet visited) {
+        return extendHypertree(parent, parentHypertree, hyperEdgeSet, visited, new Random());
+    }
+
+    /**
+     * Build a spanning hypertree of the occurrences of a pattern from the hypertree of its
+     * parent pattern, drawing the random choices from a given generator
+     *
+     * @param parent          the occurrences of the parent pattern
+     * @param parentHypertree the positions of the occurrences of the parent hypertree
+     * @param hyperEdgeSet    the occurrences of the pattern, added as extensions of those of
+     *                        the parent
+     * @param visited         an empty set of vertices, cleared before returning
+     * @param random          the random generator
+     * @return the positions of the occurrences of the hypertree
+     * @see #extendHypertree(OccurrenceTable, int[], OccurrenceTable, VertexBitSet)
+     */
+    public static int[] extendHypertree(OccurrenceTable parent, int[] parentHypertree,
+            OccurrenceTable hyperEdgeSet, VertexBitSet visited, Random random) {
+        int size = hyperEdgeSet.size();
+        int columnCount = hyperEdgeSet.getColumnCount();
+
+        // the occurrences extending each occurrence of the parent
+        int[] childOffsets = new int[parent.size() + 1];
+        for (int row = 0; row < size; row++) {
+            childOffsets[hyperEdgeSet.getParentRow(row) + 1]++;
+        }
+        for (int p = 0; p < parent.size(); p++) {
+            childOffsets[p + 1] += childOffsets[p];
+        }
+        int[] children = new int[size];
+        int[] positions = Arrays.copyOf(childOffsets, parent.size());
+        for (int row = 0; row < size; row++) {
+            children[positions[hyperEdgeSet.getParentRow(row)]++] = row;
+        }
+
+        boolean[] inHypertree = new boolean[size];
+        int[] rows = new int[size];
+        int rowCount = 0;
+
+        // follow the parent hypertree
+        for (int p : parentHypertree) {
+            for (int k = childOffsets[p]; k < childOffsets[p + 1]; k++) {
+                int row = children[k];
+                boolean reached = rowCount == 0;
+                boolean unreached = false;
+                for (int i = 0; i < columnCount; i++) {
+                    if (visited.contains(hyperEdgeSet.get(row, i))) {
+                        reached = true;
+                    } else {
+                        unreached = true;
+                    }
+                }
+                if (reached && unreached) {
+                    inHypertree[row] = true;
+                    rows[rowCount++] = row;
+                    for (int i = 0; i < columnCount; i++) {
+                        visited.add(hyperEdgeSet.get(row, i));
+                    }
                 }
             }
+        }
+        if (rowCount == 0) {
+            // no occurrence extends the parent hypertree
+            visited.clear();
+            return randomHypertree(hyperEdgeSet, random);
+        }
 
-            if (!hasUnvisited) continue;
+        // the other occurrences, in a random order
+        int[] remaining = new int[size - rowCount];
+        int remainingCount = 0;
+        for (int row = 0; row < size; row++) {
+            if (!inHypertree[row]) {
+                int k = random.nextInt(remainingCount + 1);
+                remaining[remainingCount++] = remaining[k];
+                remaining[k] = row;
+            }
+        }
 
-            hypertree.add(edge);
-            for (Integer vertex : edge.getHyperEdge()) {
-                if (!visited.contains(vertex)) {
-                    visited.add(vertex);
-                    for (HyperEdge adjacentEdge : graph.get(vertex)) {
-                        if (!hypertree.contains(adjacentEdge) && !edgeList.contains(adjacentEdge)) {
-                            edgeList.add(adjacentEdge);
-                        }
+        // repair: take the occurrences holding a reached and an unreached vertex, and forget
+        // those whose vertices are all reached
+        boolean changed = true;
+        for (int pass = 0; pass < MAX_REPAIR_PASSES && changed && remainingCount > 0; pass++) {
+            changed = false;
+            int kept = 0;
+            for (int k = 0; k < remainingCount; k++) {
+                int row = remaining[k];
+                boolean reached = false;
+                boolean unreached = false;
+                for (int i = 0; i < columnCount; i++) {
+                    if (visited.contains(hyperEdgeSet.get(row, i))) {
+                        reached = true;
+                    } else {
+                        unreached = true;
+                    }
+                }
+                if (!reached) {
+                    remaining[kept++] = row;
+                } else if (unreached) {
+                    inHypertree[row] = true;
+                    rows[rowCount++] = row;
+                    for (int i = 0; i < columnCount; i++) {
+                        visited.add(hyperEdgeSet.get(row, i));
                     }
+                    changed = true;
                 }
             }
-            Collections.shuffle(edgeList, random);
+            remainingCount = kept;
         }
 
+        if (changed && remainingCount > 0) {
+            // complete the hypertree from the frontier of the reached vertices, indexing only
+            // the occurrences left out, as the others hold no unreached vertex
+            int[] left = Arrays.copyOf(remaining, remainingCount);
+            Frontier frontier = new Frontier(new OccurrenceHypergraph(getRows(hyperEdgeSet, left)), random);
+            for (int v = 0; v < frontier.h.getVertexCount(); v++) {
+                if (visited.contains(frontier.h.vertexIds[v])) {
+                    frontier.reach(v);
+                }
+            }
+            frontier.grow();
+            for (int k = 0; k < frontier.rowCount; k++) {
+                rows[rowCount++] = left[frontier.rows[k]];
+            }
+        }
+        visited.clear();
+        return Arrays.copyOf(rows, rowCount);
+    }
+
+    /**
+     * Draw independent random spanning hypertrees of the occurrences of a pattern, one per
+     * generator, in parallel on the common fork-join pool. Each hypertree only depends on
+     * its generator, so seeded generators give the same hypertrees whatever the scheduling.
+     *
+     * @param hyperEdgeSet the occurrences of a pattern
+     * @param randoms      the random generator of each hypertree
+     * @return the positions of the occurrences of each hypertree
+     */
+    public static int[][] sampleHypertrees(final OccurrenceTable hyperEdgeSet, Random[] randoms) {
+        int[][] samples = new int[randoms.length][];
+        if (randoms.length == 1) {
+            samples[0] = randomHypertree(hyperEdgeSet, randoms[0]);
+            return samples;
+        }
+        List<Callable<int[]>> tasks = new ArrayList<>();
+        for (final Random random : randoms) {
+            tasks.add(new Callable<int[]>() {
+                @Override
+                public int[] call() {
+                    return randomHypertree(hyperEdgeSet, random);
+                }
+            });
+        }
+        try {
+            List<Future<int[]>> futures = ForkJoinPool.commonPool().invokeAll(tasks);
+            for (int s = 0; s < samples.length; s++) {
+                samples[s] = futures.get(s).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while sampling hypertrees", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("error while sampling hypertrees", e.getCause());
+        }
+        return samples;
+    }
+
+    /**
+     * Get a seed for the hypertrees of the occurrences of a pattern, which depends only on a
+     * global seed and on the set of occurrences, and not on the order in which patterns are
+     * visited
+     *
+     * @param hyperEdgeSet the occurrences of a pattern
+     * @param seed         the global seed
+     * @return the seed of the pattern
+     */
+    public static long seedOf(OccurrenceTable hyperEdgeSet, long seed) {
+        long sum = 0;
+        for (int row = 0; row < hyperEdgeSet.size(); row++) {
+            sum += hyperEdgeSet.getFingerprint(row);
+        }
+        return OccurrenceTable.nextFingerprint(seed + sum, hyperEdgeSet.size());
+    }
+
+    /**
+     * Get some occurrences of a table, such as those of a hypertree
+     *
+     * @param hyperEdgeSet the occurrences of a pattern
+     * @param rows         the positions of the occurrences
+     * @return the occurrences, in the order of their positions
+     */
+    public static OccurrenceTable getRows(OccurrenceTable hyperEdgeSet, int[] rows) {
+        OccurrenceTable hypertree = new OccurrenceTable(hyperEdgeSet.getColumnCount());
+        for (int row : rows) {
+            hypertree.add(hyperEdgeSet, row);
+        }
         return hypertree;
     }
 
+    /**
+     * The state of the randomized Prim algorithm: the reached vertices, and the occurrences
+     * in the frontier or in the hypertree
+     */
+    private static class Frontier {
+        /** the occurrences, as a hypergraph */
+        final OccurrenceHypergraph h;
+        /** the random generator */
+        final Random random;
+        /** true for a reached vertex */
+        final boolean[] visited;
+        /** true for an occurrence of the hypertree */
+        final boolean[] inHypertree;
+        /** true for an occurrence in the frontier */
+        final boolean[] inEdgeList;
+        /** the occurrences of the frontier */
+        final int[] edgeList;
+        /** the number of occurrences of the frontier */
+        int edgeCount;
+        /** the occurrences of the hypertree, in the order in which they were added */
+        final int[] rows;
+        /** the number of occurrences of the hypertree */
+        int rowCount;
+
+        /**
+         * Constructor
+         * @param h the occurrences, as a hypergraph
+         * @param random the random generator
+         */
+        Frontier(OccurrenceHypergraph h, Random random) {
+            this.h = h;
+            this.random = random;
+            visited = new boolean[h.getVertexCount()];
+            inHypertree = new boolean[h.getEdgeCount()];
+            inEdgeList = new boolean[h.getEdgeCount()];
+            edgeList = new int[h.getEdgeCount()];
+            rows = new int[h.getEdgeCount()];
+        }
+
+        /**
+         * Mark a vertex as reached, and add its occurrences to the frontier
+         * @param vertex the vertex
+         */
+        void reach(int vertex) {
+            visited[vertex] = true;
+            for (int i = h.vertexOffsets[vertex]; i < h.vertexOffsets[vertex + 1]; i++) {
+                int adjacentEdge = h.vertexEdges[i];
+                if (!inHypertree[adjacentEdge] && !inEdgeList[adjacentEdge]) {
+                    inEdgeList[adjacentEdge] = true;
+                    edgeList[edgeCount++] = adjacentEdge;
+                }
+            }
+        }
+
+        /**
+         * Add random occurrences of the frontier to the hypertree until the frontier is empty
+         */
+        void grow() {
+            while (edgeCount > 0) {
+                // remove a random edge, replacing it by the last one
+                int position = random.nextInt(edgeCount);
+                int edge = edgeList[position];
+                edgeList[position] = edgeList[--edgeCount];
+                inEdgeList[edge] = false;
+                boolean hasUnvisited = false;
+                for (int j = h.edgeOffsets[edge]; j < h.edgeOffsets[edge + 1] && !hasUnvisited; j++) {
+                    hasUnvisited = !visited[h.edgeVertices[j]];
+                }
+
+                if (!hasUnvisited) continue;
+
+                inHypertree[edge] = true;
+                rows[rowCount++] = edge;
+                for (int j = h.edgeOffsets[edge]; j < h.edgeOffsets[edge + 1]; j++) {
+                    int vertex = h.edgeVertices[j];
+                    if (!visited[vertex]) {
+                        reach(vertex);
+                    }
+                }
+            }
+        }
+    }
+
 //    public static void main(String[] args) {
-//        Set<HyperEdge> hyperEdgeSet = new HashSet<>();
+//        OccurrenceTable hyperEdgeSet = new OccurrenceTable(2);
 //
-//        hyperEdgeSet.add(new HyperEdge(Arrays.asList(0, 1)));
-//        hyperEdgeSet.add(new HyperEdge(Arrays.asList(0, 2)));
-//        hyperEdgeSet.add(new HyperEdge(Arrays.asList(1, 2)));
-//        hyperEdgeSet.add(new HyperEdge(Arrays.asList(0, 1)));
+//        hyperEdgeSet.add(0, 1);
+//        hyperEdgeSet.add(0, 2);
+//        hyperEdgeSet.add(1, 2);
+//        hyperEdgeSet.add(0, 1);
 //
-//        Set<HyperEdge> hypertree = Prim(hyperEdgeSet);
-//        for (HyperEdge edge : hypertree) {
-//            System.out.println(edge);
-//        }
+//        OccurrenceTable hypertree = Prim(hyperEdgeSet);
+//        System.out.println(hypertree);
 //    }
-}
\ No newline at end of file
+}
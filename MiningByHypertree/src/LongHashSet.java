@@ -0,0 +1,141 @@
+import java.util.Arrays;
+
+/**
+ * A set of long values stored in an open addressing table, without boxing, for the sets
+ * of packed pairs of integers built during the search.
+ */
+public class LongHashSet {
+
+	/** the marker of an empty slot (the value itself is stored apart) */
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	/** the slots */
+	private long[] slots;
+
+	/** true if EMPTY is in the set */
+	private boolean containsEmpty;
+
+	/** the number of values */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param expectedSize the number of values expected in the set
+	 */
+	public LongHashSet(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		slots = new long[capacity];
+		Arrays.fill(slots, EMPTY);
+	}
+
+	/**
+	 * Pack two integers in a long value
+	 * @param high the first integer
+	 * @param low the second integer
+	 * @return the long value
+	 */
+	public static long pack(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Add a value
+	 * @param value the value
+	 * @return true if it was not already in the set
+	 */
+	public boolean add(long value) {
+		if (value == EMPTY) {
+			if (containsEmpty) {
+				return false;
+			}
+			containsEmpty = true;
+			size++;
+			return true;
+		}
+		int mask = slots.length - 1;
+		int slot = mix(value) & mask;
+		while (slots[slot] != EMPTY) {
+			if (slots[slot] == value) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = value;
+		size++;
+		// keep the table at most half full
+		if (size * 2 > slots.length) {
+			rehash(slots.length * 2);
+		}
+		return true;
+	}
+
+	/**
+	 * Check if a value is in the set
+	 * @param value the value
+	 * @return true if it is in the set
+	 */
+	public boolean contains(long value) {
+		if (value == EMPTY) {
+			return containsEmpty;
+		}
+		int mask = slots.length - 1;
+		int slot = mix(value) & mask;
+		while (slots[slot] != EMPTY) {
+			if (slots[slot] == value) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Get the number of values
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all the values, keeping the capacity
+	 */
+	public void clear() {
+		Arrays.fill(slots, EMPTY);
+		containsEmpty = false;
+		size = 0;
+	}
+
+	/**
+	 * Move the values to a table of another capacity
+	 * @param capacity the new capacity, a power of 2
+	 */
+	private void rehash(int capacity) {
+		long[] old = slots;
+		slots = new long[capacity];
+		Arrays.fill(slots, EMPTY);
+		int mask = capacity - 1;
+		for (long value : old) {
+			if (value != EMPTY) {
+				int slot = mix(value) & mask;
+				while (slots[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = value;
+			}
+		}
+	}
+
+	/**
+	 * Spread the bits of a value
+	 * @param value a value
+	 * @return a hash code
+	 */
+	private static int mix(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -2,7 +2,7 @@ import java.io.IOException;
 
 public class MainTest {
 
-	public static void main(String [] arg) throws IOException, ClassNotFoundException{
+	public static void main(String [] arg) throws IOException{
 
 		// set the input and output file path
 		String input = "Data/deezer.lg";
@@ -13,9 +13,12 @@ public class MainTest {
 
 		/**
 		 * set support type
-		 * there are four support measures: "MNI", "MI", "MVC", "MIS"
-		 * the MVC and MIS algorithm are approximate algorithms
-		 * the exact algotithms will take too much runtime
+		 * there are six support measures: "MNI", "MI", "MVC", "MIS", "MVC-exact", "MIS-exact"
+		 * the MVC and MIS algorithm are exact on components of at most 32 occurrences and greedy on larger ones
+		 * "MVC-exact" and "MIS-exact" compute the MVC and MIS measures exactly, by branch and bound,
+		 * within a time budget per pattern (see algo.setExactTimeBudget())
+		 * when the budget of a pattern runs out, its support falls back to the "MVC" or "MIS" measure
+		 * (the greedy cover is then also capped by the MNI support)
 		 */
 		String supType = "MNI";
 		
@@ -33,6 +36,12 @@ public class MainTest {
 		
 		// Apply the algorithm 
 		Algo algo = new Algo();
+		// to extend the hypertree of the parent pattern instead of building each one from scratch
+		// algo.setIncrementalHypertree(true);
+		// to get the same hypertrees, and the same patterns, in every run
+		// algo.setHypertreeSeed(42);
+		// to take the minimum support over 8 hypertrees of each candidate
+		// algo.setHypertreeSamples(8, "min");
 		algo.runAlgorithm(input, output, minSupport, supType, outputSingleFrequentVertices,
 				outputDotFile, maxNumberOfEdges, getHypertree);
 		
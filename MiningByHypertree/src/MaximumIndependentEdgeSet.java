@@ -2,53 +2,366 @@ import java.util.*;
 
 public class MaximumIndependentEdgeSet {
 
-    public static int MIS(Set<HyperEdge> hyperEdgeSet) {
-        List<HyperEdge> edgeList = new ArrayList<>(hyperEdgeSet);
-        int n = edgeList.size();
+    /**
+     * Greedy approximation of the maximum independent edge set of a hypergraph: take each
+     * hyperedge, in order, if it shares no vertex with the hyperedges already taken.
+     *
+     * @param hypergraph the hypergraph of the occurrences of a pattern
+     * @return the size of the packing
+     */
+    public static int greedy(OccurrenceHypergraph hypergraph) {
+        boolean[] used = new boolean[hypergraph.getVertexCount()];
+        int size = 0;
+        for (int e = 0; e < hypergraph.getEdgeCount(); e++) {
+            boolean independent = true;
+            for (int j = hypergraph.edgeOffsets[e]; j < hypergraph.edgeOffsets[e + 1] && independent; j++) {
+                independent = !used[hypergraph.edgeVertices[j]];
+            }
+            if (independent) {
+                size++;
+                for (int j = hypergraph.edgeOffsets[e]; j < hypergraph.edgeOffsets[e + 1]; j++) {
+                    used[hypergraph.edgeVertices[j]] = true;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Exact maximum independent edge set of a hypergraph, that is a maximum set packing of
+     * the occurrences of a pattern.
+     * <p>
+     * The conflict graph of the occurrences (two occurrences conflict if they share a vertex)
+     * is not built explicitly: it is the union of one clique per vertex, given by the
+     * hyperedges of the vertex, so its size stays linear in the number of incidences. The
+     * occurrences are split into connected components, and each component is solved by
+     * branch and bound: an occurrence conflicting with at most one other occurrence is
+     * always taken, otherwise the search branches on the occurrence with the most
+     * conflicts. A branch is cut when the number of cliques of a greedy clique cover of
+     * the remaining occurrences (each clique being the occurrences of a vertex) cannot
+     * improve the best packing.
+     *
+     * @param hypergraph the hypergraph of the occurrences of a pattern
+     * @param timeBudget the maximum time of the search, in milliseconds
+     * @return the size of a maximum packing, or -1 if the time budget was exceeded
+     */
+    public static int exact(OccurrenceHypergraph hypergraph, long timeBudget) {
+        return new ExactSolver(hypergraph, System.nanoTime() + timeBudget * 1000000L, Long.MAX_VALUE).solve();
+    }
+
+    /**
+     * Same as exact(), but the search is limited to a number of nodes instead of a time,
+     * so that the result does not depend on the speed or the load of the machine
+     *
+     * @param hypergraph the hypergraph of the occurrences of a pattern
+     * @param nodeBudget the maximum number of nodes of the search
+     * @return the size of a maximum packing, or -1 if the node budget was exceeded
+     */
+    public static int exactWithinNodes(OccurrenceHypergraph hypergraph, long nodeBudget) {
+        return new ExactSolver(hypergraph, Long.MAX_VALUE, nodeBudget).solve();
+    }
+
+    /**
+     * The state of the exact search: the occurrences that can still be added to the packing
+     */
+    private static class ExactSolver {
+        /** the number of search nodes between two checks of the time */
+        private static final int TIME_CHECK_INTERVAL = 1024;
+        /** the hypergraph */
+        private final OccurrenceHypergraph h;
+        /** the time at which the search stops, as given by System.nanoTime() */
+        private final long deadline;
+        /** true for an occurrence that is neither in the packing nor in conflict with it */
+        private final boolean[] alive;
+        /** the occurrences removed from alive, in order, so that they can be restored */
+        private final int[] trail;
+        /** the number of occurrences in trail */
+        private int trailSize;
+        /** marks of occurrences or vertices, valid when equal to stamp */
+        private final int[] edgeMarks;
+        private final int[] vertexMarks;
+        /** the current mark */
+        private int stamp;
+        /** the size of the best packing of the current component */
+        private int best;
+        /** the number of search nodes */
+        private long nodeCount;
+        /** the maximum number of search nodes */
+        private final long nodeBudget;
+        /** true if the time budget or the node budget was exceeded */
+        private boolean outOfBudget;
+
+        /**
+         * Constructor
+         * @param hypergraph the hypergraph
+         * @param deadline the time at which the search stops, as given by System.nanoTime()
+         * @param nodeBudget the maximum number of search nodes
+         */
+        ExactSolver(OccurrenceHypergraph hypergraph, long deadline, long nodeBudget) {
+            h = hypergraph;
+            this.deadline = deadline;
+            this.nodeBudget = nodeBudget;
+            alive = new boolean[h.getEdgeCount()];
+            Arrays.fill(alive, true);
+            trail = new int[h.getEdgeCount()];
+            edgeMarks = new int[h.getEdgeCount()];
+            vertexMarks = new int[h.getVertexCount()];
+        }
 
-        // Variable to store the size of the maximum independent edge set
-        int maxIndepSetSize = 0;
+        /**
+         * Find the size of a maximum packing
+         * @return the size, or -1 if the time budget or the node budget was exceeded
+         */
+        int solve() {
+            // the connected components of the occurrences, which share no vertex
+            int[] parents = new int[h.getEdgeCount()];
+            for (int e = 0; e < parents.length; e++) {
+                parents[e] = e;
+            }
+            for (int v = 0; v < h.getVertexCount(); v++) {
+                int root = find(parents, h.vertexEdges[h.vertexOffsets[v]]);
+                for (int i = h.vertexOffsets[v] + 1; i < h.vertexOffsets[v + 1]; i++) {
+                    int r = find(parents, h.vertexEdges[i]);
+                    if (r != root) {
+                        parents[r] = root;
+                    }
+                }
+            }
+            int[] componentSizes = new int[h.getEdgeCount()];
+            for (int e = 0; e < h.getEdgeCount(); e++) {
+                componentSizes[find(parents, e)]++;
+            }
+            int[][] components = new int[h.getEdgeCount()][];
+            for (int e = 0; e < h.getEdgeCount(); e++) {
+                int root = find(parents, e);
+                if (components[root] == null) {
+                    components[root] = new int[componentSizes[root]];
+                    componentSizes[root] = 0;
+                }
+                components[root][componentSizes[root]++] = e;
+            }
 
-        // Generate all subsets of edges
-        for (int i = 0; i < (1 << n); i++) {
-            Set<HyperEdge> candidateSet = new HashSet<>();
-            for (int j = 0; j < n; j++) {
-                if ((i & (1 << j)) != 0) {
-                    candidateSet.add(edgeList.get(j));
+            int size = 0;
+            for (int[] component : components) {
+                if (component != null) {
+                    // start from the greedy packing, in occurrence order
+                    int mark = trailSize;
+                    best = 0;
+                    for (int e : component) {
+                        if (alive[e]) {
+                            take(e);
+                            best++;
+                        }
+                    }
+                    restore(mark);
+                    search(component);
+                    if (outOfBudget) {
+                        return -1;
+                    }
+                    size += best;
                 }
             }
+            return size;
+        }
 
-            // Check if the candidate set is an independent edge set
-            if (isIndependentSet(candidateSet)) {
-                maxIndepSetSize = Math.max(maxIndepSetSize, candidateSet.size());
+        /**
+         * Branch and bound on the alive occurrences of a component, with an explicit stack
+         * of levels: each level either adds its branching occurrence to the packing, or
+         * leaves it out
+         * @param component the occurrences of the component
+         */
+        private void search(int[] component) {
+            // for each level: the trail position at its start and before its branch, the
+            // size of the packing, the branching occurrence (-1 once the level is cut or
+            // packed), and the number of branches already tried
+            int[] marks = new int[component.length + 1];
+            int[] branchMarks = new int[component.length + 1];
+            int[] sizes = new int[component.length + 1];
+            int[] branches = new int[component.length + 1];
+            int[] tried = new int[component.length + 1];
+            int depth = 0;
+            boolean entering = true;
+            while (depth >= 0) {
+                if (entering) {
+                    if (++nodeCount > nodeBudget
+                            || (nodeCount % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)) {
+                        outOfBudget = true;
+                        return;
+                    }
+                    marks[depth] = trailSize;
+                    tried[depth] = 0;
+                    branches[depth] = branch(component, sizes, depth);
+                    entering = false;
+                }
+                int e = branches[depth];
+                if (e >= 0 && tried[depth] == 0) {
+                    // first add the branching occurrence to the packing
+                    tried[depth] = 1;
+                    branchMarks[depth] = trailSize;
+                    take(e);
+                    sizes[depth + 1] = sizes[depth] + 1;
+                    depth++;
+                    entering = true;
+                } else if (e >= 0 && tried[depth] == 1) {
+                    // then leave it out
+                    tried[depth] = 2;
+                    restore(branchMarks[depth]);
+                    remove(e);
+                    sizes[depth + 1] = sizes[depth];
+                    depth++;
+                    entering = true;
+                } else {
+                    restore(marks[depth]);
+                    depth--;
+                }
             }
         }
 
-        return maxIndepSetSize;
-    }
+        /**
+         * Start a level of the search: take the occurrences with at most one conflict, then
+         * find the occurrence with the most conflicts
+         * @param component the occurrences of the component
+         * @param sizes the sizes of the packing at each level, the size at this level being
+         *              increased by the occurrences taken
+         * @param depth the level
+         * @return the occurrence to branch on, or -1 if the level is cut by the upper bound
+         *         or if no occurrence is alive (the packing is then compared to the best one)
+         */
+        private int branch(int[] component, int[] sizes, int depth) {
+            while (true) {
+                int minEdge = -1;
+                int minConflicts = Integer.MAX_VALUE;
+                int maxEdge = -1;
+                int maxConflicts = -1;
+                for (int e : component) {
+                    if (alive[e]) {
+                        int conflicts = countConflicts(e);
+                        if (conflicts < minConflicts) {
+                            minConflicts = conflicts;
+                            minEdge = e;
+                        }
+                        if (conflicts > maxConflicts) {
+                            maxConflicts = conflicts;
+                            maxEdge = e;
+                        }
+                    }
+                }
+                if (minEdge < 0) {
+                    best = Math.max(best, sizes[depth]);
+                    return -1;
+                }
+                if (minConflicts <= 1) {
+                    take(minEdge);
+                    sizes[depth]++;
+                    continue;
+                }
+                return sizes[depth] + upperBound(component) > best ? maxEdge : -1;
+            }
+        }
 
-    private static boolean isIndependentSet(Set<HyperEdge> edgeSet) {
-        Set<Integer> usedVertices = new HashSet<>();
-        for (HyperEdge edge : edgeSet) {
-            for (Integer vertex : edge.getHyperEdge()) {
-                if (usedVertices.contains(vertex)) {
-                    return false;
+        /**
+         * An upper bound of the number of alive occurrences of a component that can be added
+         * to the packing: the number of cliques of a greedy clique cover, where each clique
+         * is the set of occurrences holding a vertex
+         * @param component the occurrences of the component
+         * @return the bound
+         */
+        private int upperBound(int[] component) {
+            stamp++;
+            int bound = 0;
+            for (int e : component) {
+                if (!alive[e]) {
+                    continue;
+                }
+                int chosen = -1;
+                int chosenDegree = -1;
+                boolean covered = false;
+                for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1] && !covered; j++) {
+                    int v = h.edgeVertices[j];
+                    if (vertexMarks[v] == stamp) {
+                        covered = true;
+                    } else if (h.getDegree(v) > chosenDegree) {
+                        chosenDegree = h.getDegree(v);
+                        chosen = v;
+                    }
+                }
+                if (!covered) {
+                    vertexMarks[chosen] = stamp;
+                    bound++;
+                }
+            }
+            return bound;
+        }
+
+        /**
+         * Count the alive occurrences in conflict with an occurrence
+         * @param e the occurrence
+         * @return the number of conflicts
+         */
+        private int countConflicts(int e) {
+            stamp++;
+            edgeMarks[e] = stamp;
+            int conflicts = 0;
+            for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                int v = h.edgeVertices[j];
+                for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                    int f = h.vertexEdges[i];
+                    if (alive[f] && edgeMarks[f] != stamp) {
+                        edgeMarks[f] = stamp;
+                        conflicts++;
+                    }
+                }
+            }
+            return conflicts;
+        }
+
+        /**
+         * Add an occurrence to the packing, removing the occurrences in conflict with it
+         * @param e the occurrence
+         */
+        private void take(int e) {
+            for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                int v = h.edgeVertices[j];
+                for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                    int f = h.vertexEdges[i];
+                    if (alive[f]) {
+                        remove(f);
+                    }
                 }
-                usedVertices.add(vertex);
             }
         }
-        return true;
-    }
 
-    public static void main(String[] args) {
-        Set<HyperEdge> hyperEdgeSet = new HashSet<>();
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(0, 1, 2)));
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(0, 3, 4)));
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(4, 5, 6)));
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(2, 7, 9)));
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(10, 11, 12)));
+        /**
+         * Remove an occurrence from the alive occurrences
+         * @param e the occurrence
+         */
+        private void remove(int e) {
+            alive[e] = false;
+            trail[trailSize++] = e;
+        }
 
-        int maxIndepSetSize = MIS(hyperEdgeSet);
-        System.out.println("Maximum Independent Edge Set size: " + maxIndepSetSize);
+        /**
+         * Restore the occurrences removed since a position of the trail
+         * @param mark the position
+         */
+        private void restore(int mark) {
+            while (trailSize > mark) {
+                alive[trail[--trailSize]] = true;
+            }
+        }
+
+        /**
+         * Find the root of an occurrence in a union-find forest, with path halving
+         * @param parents the parent of each occurrence
+         * @param e the occurrence
+         * @return the root
+         */
+        private static int find(int[] parents, int e) {
+            while (parents[e] != e) {
+                parents[e] = parents[parents[e]];
+                e = parents[e];
+            }
+            return e;
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,58 +2,601 @@ import java.util.*;
 
 public class MinimumVertexCover {
 
-    public static int MVC(Set<HyperEdge> hyperEdgeSet) {
-        // Find all vertices
-        Set<Integer> vertices = new HashSet<>();
-        for (HyperEdge hyperEdge : hyperEdgeSet) {
-            vertices.addAll(hyperEdge.getHyperEdge());
+    /**
+     * Greedy approximation of the minimum vertex cover of a hypergraph: repeatedly add the
+     * vertex covering the most uncovered hyperedges, the first one in vertex order on ties.
+     * Vertices are kept in buckets by number of uncovered hyperedges, and a vertex moves
+     * to a lower bucket each time one of its hyperedges gets covered, so the whole cover
+     * takes O((V + I) log V) time for I incidences, instead of scanning every vertex and
+     * every hyperedge at each step.
+     *
+     * @param hypergraph the hypergraph of the occurrences of a pattern
+     * @return the size of the cover
+     */
+    public static int greedy(OccurrenceHypergraph hypergraph) {
+        int vertexCount = hypergraph.getVertexCount();
+        int uncoveredCount = hypergraph.getEdgeCount();
+        int[] degrees = new int[vertexCount];
+        boolean[] inCover = new boolean[vertexCount];
+        boolean[] covered = new boolean[uncoveredCount];
+
+        int maxDegree = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            degrees[v] = hypergraph.getDegree(v);
+            maxDegree = Math.max(maxDegree, degrees[v]);
+        }
+        BucketQueue buckets = new BucketQueue(maxDegree);
+        for (int v = 0; v < vertexCount; v++) {
+            buckets.add(degrees[v], v);
         }
 
-        int n = vertices.size();
-        List<Integer> vertexList = new ArrayList<>(vertices);
+        int coverSize = 0;
+        int degree = maxDegree;
+        while (uncoveredCount > 0) {
+            while (buckets.isEmpty(degree)) {
+                degree--;
+            }
+            int vertex = buckets.removeFirst(degree);
+            // a vertex is left in the bucket of each of its previous degrees
+            if (inCover[vertex] || degrees[vertex] != degree) {
+                continue;
+            }
 
-        // Check all subsets of vertices
-        int minCoverSize = n;
-        for (int i = 0; i < (1 << n); i++) {
-            Set<Integer> cover = new HashSet<>();
-            for (int j = 0; j < n; j++) {
-                if ((i & (1 << j)) != 0) {
-                    cover.add(vertexList.get(j));
+            inCover[vertex] = true;
+            coverSize++;
+            for (int i = hypergraph.vertexOffsets[vertex]; i < hypergraph.vertexOffsets[vertex + 1]; i++) {
+                int edge = hypergraph.vertexEdges[i];
+                if (covered[edge]) {
+                    continue;
+                }
+                covered[edge] = true;
+                uncoveredCount--;
+                for (int j = hypergraph.edgeOffsets[edge]; j < hypergraph.edgeOffsets[edge + 1]; j++) {
+                    int other = hypergraph.edgeVertices[j];
+                    if (!inCover[other] && --degrees[other] > 0) {
+                        buckets.add(degrees[other], other);
+                    }
                 }
             }
+        }
+        return coverSize;
+    }
 
-            if (isVertexCover(cover, hyperEdgeSet)) {
-                minCoverSize = Math.min(minCoverSize, cover.size());
+    /**
+     * Exact minimum vertex cover of a hypergraph (a minimum hitting set of the occurrences).
+     * <p>
+     * The hypergraph is first reduced until nothing changes: a hyperedge with a single
+     * candidate vertex forces it into the cover, a vertex whose uncovered hyperedges all
+     * contain another vertex is dropped (the other one is at least as good), and a
+     * hyperedge containing another one is dropped (covering the smaller one covers it).
+     * The remaining hyperedges are split into connected components, and each component is
+     * solved by branch and bound: branch on the vertices of the uncovered hyperedge with
+     * the fewest candidates, and cut with a lower bound given by a set of disjoint uncovered
+     * hyperedges, which all need a different vertex. The search keeps its branches on an
+     * explicit stack, whose depth is at most the number of hyperedges of the component.
+     *
+     * @param hypergraph the hypergraph of the occurrences of a pattern
+     * @param timeBudget the maximum time of the search, in milliseconds
+     * @return the size of a minimum cover, or -1 if the time budget was exceeded
+     */
+    public static int exact(OccurrenceHypergraph hypergraph, long timeBudget) {
+        return new ExactSolver(hypergraph, System.nanoTime() + timeBudget * 1000000L, Long.MAX_VALUE).solve();
+    }
+
+    /**
+     * Same as exact(), but the search is limited to a number of nodes instead of a time,
+     * so that the result does not depend on the speed or the load of the machine
+     *
+     * @param hypergraph the hypergraph of the occurrences of a pattern
+     * @param nodeBudget the maximum number of nodes of the search
+     * @return the size of a minimum cover, or -1 if the node budget was exceeded
+     */
+    public static int exactWithinNodes(OccurrenceHypergraph hypergraph, long nodeBudget) {
+        return new ExactSolver(hypergraph, Long.MAX_VALUE, nodeBudget).solve();
+    }
+
+    /**
+     * The state of the exact search: the vertices taken in the cover or excluded from it
+     */
+    private static class ExactSolver {
+        /** the number of search nodes between two checks of the time */
+        private static final int TIME_CHECK_INTERVAL = 1024;
+        /** the hypergraph */
+        private final OccurrenceHypergraph h;
+        /** the time at which the search stops, as given by System.nanoTime() */
+        private final long deadline;
+        /** true for a vertex in the cover */
+        private final boolean[] inCover;
+        /** true for a vertex that cannot be added to the cover */
+        private final boolean[] excluded;
+        /** for each hyperedge, the number of its vertices in the cover (or 1 for a dropped hyperedge) */
+        private final int[] coverCounts;
+        /** for each hyperedge, the number of its vertices that are not excluded */
+        private final int[] candidateCounts;
+        /** marks of vertices, valid when equal to stamp */
+        private final int[] marks;
+        /** the current mark */
+        private int stamp;
+        /** the size of the best cover of the current component */
+        private int best;
+        /** the number of search nodes */
+        private long nodeCount;
+        /** the maximum number of search nodes */
+        private final long nodeBudget;
+        /** true if the time budget or the node budget was exceeded */
+        private boolean outOfBudget;
+
+        /**
+         * Constructor
+         * @param hypergraph the hypergraph
+         * @param deadline the time at which the search stops, as given by System.nanoTime()
+         * @param nodeBudget the maximum number of search nodes
+         */
+        ExactSolver(OccurrenceHypergraph hypergraph, long deadline, long nodeBudget) {
+            h = hypergraph;
+            this.deadline = deadline;
+            this.nodeBudget = nodeBudget;
+            inCover = new boolean[h.getVertexCount()];
+            excluded = new boolean[h.getVertexCount()];
+            coverCounts = new int[h.getEdgeCount()];
+            candidateCounts = new int[h.getEdgeCount()];
+            marks = new int[h.getVertexCount()];
+            for (int e = 0; e < h.getEdgeCount(); e++) {
+                candidateCounts[e] = h.edgeOffsets[e + 1] - h.edgeOffsets[e];
             }
         }
 
-        return minCoverSize;
-    }
+        /**
+         * Find the size of a minimum cover
+         * @return the size, or -1 if the time budget or the node budget was exceeded
+         */
+        int solve() {
+            int size = reduce();
+            if (outOfBudget) {
+                return -1;
+            }
 
-    private static boolean isVertexCover(Set<Integer> cover, Set<HyperEdge> hyperEdgeSet) {
-        for (HyperEdge hyperEdge : hyperEdgeSet) {
-            boolean covered = false;
-            for (Integer vertex : hyperEdge.getHyperEdge()) {
-                if (cover.contains(vertex)) {
-                    covered = true;
-                    break;
+            // split the uncovered hyperedges into connected components
+            int[] parents = new int[h.getVertexCount()];
+            for (int v = 0; v < parents.length; v++) {
+                parents[v] = v;
+            }
+            for (int e = 0; e < h.getEdgeCount(); e++) {
+                if (coverCounts[e] == 0) {
+                    int root = -1;
+                    for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                        int v = h.edgeVertices[j];
+                        if (!excluded[v]) {
+                            int r = find(parents, v);
+                            if (root < 0) {
+                                root = r;
+                            } else if (r != root) {
+                                parents[r] = root;
+                            }
+                        }
+                    }
+                }
+            }
+            int[] componentSizes = new int[h.getVertexCount()];
+            int[] edgeRoots = new int[h.getEdgeCount()];
+            for (int e = 0; e < h.getEdgeCount(); e++) {
+                edgeRoots[e] = -1;
+                if (coverCounts[e] == 0) {
+                    edgeRoots[e] = find(parents, firstCandidate(e));
+                    componentSizes[edgeRoots[e]]++;
+                }
+            }
+            int[][] components = new int[h.getVertexCount()][];
+            for (int e = 0; e < h.getEdgeCount(); e++) {
+                int root = edgeRoots[e];
+                if (root >= 0) {
+                    if (components[root] == null) {
+                        components[root] = new int[componentSizes[root]];
+                        componentSizes[root] = 0;
+                    }
+                    components[root][componentSizes[root]++] = e;
+                }
+            }
+
+            for (int[] component : components) {
+                if (component != null) {
+                    // a cover taking one vertex per hyperedge
+                    best = component.length;
+                    search(component);
+                    if (outOfBudget) {
+                        return -1;
+                    }
+                    size += best;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Apply the reductions until nothing changes, or until the time budget is exceeded
+         * @return the number of vertices forced into the cover
+         */
+        private int reduce() {
+            int forced = 0;
+            boolean changed = true;
+            while (changed) {
+                if (System.nanoTime() > deadline) {
+                    outOfBudget = true;
+                    return forced;
+                }
+                changed = false;
+
+                // a hyperedge with a single candidate forces it
+                for (int e = 0; e < h.getEdgeCount(); e++) {
+                    if (coverCounts[e] == 0 && candidateCounts[e] == 1) {
+                        include(firstCandidate(e));
+                        forced++;
+                        changed = true;
+                    }
+                }
+
+                // a vertex dominated by another vertex is excluded
+                for (int v = 0; v < h.getVertexCount(); v++) {
+                    if (!excluded[v] && !inCover[v] && isDominated(v)) {
+                        exclude(v);
+                        changed = true;
+                    }
+                }
+
+                // a hyperedge containing another hyperedge is dropped
+                for (int e = 0; e < h.getEdgeCount(); e++) {
+                    if (coverCounts[e] == 0 && dropSupersets(e)) {
+                        changed = true;
+                    }
+                }
+            }
+            return forced;
+        }
+
+        /**
+         * Check if the uncovered hyperedges of a vertex all contain another candidate
+         * vertex (or if there is no such hyperedge)
+         * @param v the vertex
+         * @return true if the vertex can be excluded
+         */
+        private boolean isDominated(int v) {
+            int first = -1;
+            for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1] && first < 0; i++) {
+                if (coverCounts[h.vertexEdges[i]] == 0) {
+                    first = h.vertexEdges[i];
+                }
+            }
+            if (first < 0) {
+                return true;
+            }
+            // the dominating vertex must be in the first uncovered hyperedge
+            for (int j = h.edgeOffsets[first]; j < h.edgeOffsets[first + 1]; j++) {
+                int u = h.edgeVertices[j];
+                if (u == v || excluded[u]) {
+                    continue;
+                }
+                boolean dominates = true;
+                for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1] && dominates; i++) {
+                    int e = h.vertexEdges[i];
+                    dominates = coverCounts[e] != 0 || contains(e, u);
+                }
+                if (dominates) {
+                    return true;
                 }
             }
-            if (!covered) {
-                return false;
+            return false;
+        }
+
+        /**
+         * Drop the uncovered hyperedges whose candidates include those of a hyperedge
+         * @param e the hyperedge
+         * @return true if a hyperedge was dropped
+         */
+        private boolean dropSupersets(int e) {
+            // a superset contains the candidate of e having the fewest hyperedges
+            int pivot = -1;
+            for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                int v = h.edgeVertices[j];
+                if (!excluded[v] && (pivot < 0 || h.getDegree(v) < h.getDegree(pivot))) {
+                    pivot = v;
+                }
+            }
+            stamp++;
+            for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                marks[h.edgeVertices[j]] = stamp;
+            }
+            boolean dropped = false;
+            for (int i = h.vertexOffsets[pivot]; i < h.vertexOffsets[pivot + 1]; i++) {
+                int f = h.vertexEdges[i];
+                if (f == e || coverCounts[f] != 0 || candidateCounts[f] < candidateCounts[e]) {
+                    continue;
+                }
+                int shared = 0;
+                for (int j = h.edgeOffsets[f]; j < h.edgeOffsets[f + 1]; j++) {
+                    int v = h.edgeVertices[j];
+                    if (!excluded[v] && marks[v] == stamp) {
+                        shared++;
+                    }
+                }
+                if (shared == candidateCounts[e]) {
+                    coverCounts[f] = 1;
+                    dropped = true;
+                }
             }
+            return dropped;
+        }
+
+        /**
+         * Branch and bound on the uncovered hyperedges of a component. The branches are
+         * kept on a stack with one level per vertex added to the cover, so the depth of a
+         * level is also the size of the partial cover.
+         * @param component the hyperedges of the component
+         */
+        private void search(int[] component) {
+            // the candidates of the branching hyperedge of each level (null once the level
+            // is cut or covered), and the number of them already tried
+            int[][] candidates = new int[component.length + 1][];
+            int[] tried = new int[component.length + 1];
+            int depth = 0;
+            candidates[0] = branch(component, 0);
+            while (depth >= 0) {
+                int[] level = candidates[depth];
+                int i = tried[depth];
+                if (i > 0) {
+                    // back from the branch of the previous candidate, which is excluded
+                    // from the next branches
+                    uninclude(level[i - 1]);
+                    exclude(level[i - 1]);
+                }
+                if (level != null && i < level.length && depth + 1 < best) {
+                    include(level[i]);
+                    tried[depth] = i + 1;
+                    if (++nodeCount > nodeBudget
+                            || (nodeCount % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)) {
+                        outOfBudget = true;
+                        return;
+                    }
+                    depth++;
+                    tried[depth] = 0;
+                    candidates[depth] = branch(component, depth);
+                } else {
+                    for (int k = 0; k < i; k++) {
+                        unexclude(level[k]);
+                    }
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * Start a level of the search: find the uncovered hyperedge with the fewest
+         * candidates, and order its candidates by decreasing number of uncovered hyperedges
+         * @param component the hyperedges of the component
+         * @param size the number of vertices added to the cover in the component
+         * @return the candidates, or null if the level is cut by the lower bound or if the
+         *         component is covered (the cover is then the best one)
+         */
+        private int[] branch(int[] component, int size) {
+            if (size + lowerBound(component) >= best) {
+                return null;
+            }
+
+            // the uncovered hyperedge with the fewest candidates
+            int edge = -1;
+            for (int e : component) {
+                if (coverCounts[e] == 0 && (edge < 0 || candidateCounts[e] < candidateCounts[edge])) {
+                    edge = e;
+                }
+            }
+            if (edge < 0) {
+                best = size;
+                return null;
+            }
+
+            int[] candidates = new int[candidateCounts[edge]];
+            int count = 0;
+            for (int j = h.edgeOffsets[edge]; j < h.edgeOffsets[edge + 1]; j++) {
+                int v = h.edgeVertices[j];
+                if (!excluded[v]) {
+                    int degree = uncoveredDegree(v);
+                    int k = count++;
+                    while (k > 0 && uncoveredDegree(candidates[k - 1]) < degree) {
+                        candidates[k] = candidates[k - 1];
+                        k--;
+                    }
+                    candidates[k] = v;
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * A lower bound of the number of vertices needed to cover a component: the size of
+         * a set of uncovered hyperedges having no candidate in common
+         * @param component the hyperedges of the component
+         * @return the bound
+         */
+        private int lowerBound(int[] component) {
+            stamp++;
+            int bound = 0;
+            for (int e : component) {
+                if (coverCounts[e] != 0) {
+                    continue;
+                }
+                boolean disjoint = true;
+                for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1] && disjoint; j++) {
+                    disjoint = marks[h.edgeVertices[j]] != stamp || excluded[h.edgeVertices[j]];
+                }
+                if (disjoint) {
+                    bound++;
+                    for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                        marks[h.edgeVertices[j]] = stamp;
+                    }
+                }
+            }
+            return bound;
+        }
+
+        /**
+         * Count the uncovered hyperedges of a vertex
+         * @param v the vertex
+         * @return the number of hyperedges
+         */
+        private int uncoveredDegree(int v) {
+            int degree = 0;
+            for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                if (coverCounts[h.vertexEdges[i]] == 0) {
+                    degree++;
+                }
+            }
+            return degree;
+        }
+
+        /**
+         * Check if a hyperedge contains a vertex
+         * @param e the hyperedge
+         * @param v the vertex
+         * @return true if it contains it
+         */
+        private boolean contains(int e, int v) {
+            for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                if (h.edgeVertices[j] == v) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Get the first candidate of a hyperedge
+         * @param e the hyperedge
+         * @return the vertex, or -1 if none
+         */
+        private int firstCandidate(int e) {
+            for (int j = h.edgeOffsets[e]; j < h.edgeOffsets[e + 1]; j++) {
+                if (!excluded[h.edgeVertices[j]]) {
+                    return h.edgeVertices[j];
+                }
+            }
+            return -1;
+        }
+
+        private void include(int v) {
+            inCover[v] = true;
+            for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                coverCounts[h.vertexEdges[i]]++;
+            }
+        }
+
+        private void uninclude(int v) {
+            inCover[v] = false;
+            for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                coverCounts[h.vertexEdges[i]]--;
+            }
+        }
+
+        private void exclude(int v) {
+            excluded[v] = true;
+            for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                candidateCounts[h.vertexEdges[i]]--;
+            }
+        }
+
+        private void unexclude(int v) {
+            excluded[v] = false;
+            for (int i = h.vertexOffsets[v]; i < h.vertexOffsets[v + 1]; i++) {
+                candidateCounts[h.vertexEdges[i]]++;
+            }
+        }
+
+        /**
+         * Find the root of a vertex in a union-find forest, with path halving
+         * @param parents the parent of each vertex
+         * @param v the vertex
+         * @return the root
+         */
+        private static int find(int[] parents, int v) {
+            while (parents[v] != v) {
+                parents[v] = parents[parents[v]];
+                v = parents[v];
+            }
+            return v;
         }
-        return true;
     }
 
-    public static void main(String[] args) {
-        Set<HyperEdge> hyperEdgeSet = new HashSet<>();
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(0, 1, 2)));
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(3, 4, 5)));
-        hyperEdgeSet.add(new HyperEdge(Arrays.asList(6, 7, 8)));
+    /**
+     * Vertices in buckets by degree, each bucket being a binary heap of vertices so that
+     * the smallest vertex of a bucket is removed first
+     */
+    private static class BucketQueue {
+        /** the heap of each bucket */
+        private final int[][] heaps;
+        /** the size of each heap */
+        private final int[] sizes;
 
-        int minCover = MVC(hyperEdgeSet);
-        System.out.println("Minimum Vertex Cover size: " + minCover);
+        /**
+         * Constructor
+         * @param maxDegree the largest degree
+         */
+        BucketQueue(int maxDegree) {
+            heaps = new int[maxDegree + 1][];
+            sizes = new int[maxDegree + 1];
+        }
+
+        /**
+         * Add a vertex to a bucket
+         * @param degree the bucket
+         * @param vertex the vertex
+         */
+        void add(int degree, int vertex) {
+            int[] heap = heaps[degree];
+            if (heap == null) {
+                heap = heaps[degree] = new int[4];
+            } else if (sizes[degree] == heap.length) {
+                heap = heaps[degree] = Arrays.copyOf(heap, heap.length * 2);
+            }
+            int i = sizes[degree]++;
+            while (i > 0 && heap[(i - 1) >> 1] > vertex) {
+                heap[i] = heap[(i - 1) >> 1];
+                i = (i - 1) >> 1;
+            }
+            heap[i] = vertex;
+        }
+
+        /**
+         * Check if a bucket is empty
+         * @param degree the bucket
+         * @return true if it is empty
+         */
+        boolean isEmpty(int degree) {
+            return sizes[degree] == 0;
+        }
+
+        /**
+         * Remove the smallest vertex of a bucket
+         * @param degree the bucket, which must not be empty
+         * @return the vertex
+         */
+        int removeFirst(int degree) {
+            int[] heap = heaps[degree];
+            int first = heap[0];
+            int last = heap[--sizes[degree]];
+            int size = sizes[degree];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return first;
+        }
     }
 }
 
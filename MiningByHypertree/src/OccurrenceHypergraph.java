@@ -0,0 +1,244 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The hypergraph of the occurrences of a pattern: each occurrence is a hyperedge on the
+ * distinct vertices of the graph that it holds. This is the input of the vertex cover
+ * and independent set supports.
+ * <p>
+ * Vertices are renumbered from 0, and both incidences are stored in CSR form: the
+ * vertices of each hyperedge, and the hyperedges of each vertex. The new numbers follow
+ * the iteration order of a HashMap of the vertices, filled in occurrence order, which is
+ * the order in which the greedy supports visited the vertices before this class existed,
+ * so that their ties are broken in the same way.
+ */
+public class OccurrenceHypergraph {
+
+	/** the vertex of the graph of each vertex of the hypergraph */
+	public final int[] vertexIds;
+
+	/** the start of the vertices of each hyperedge in edgeVertices (one more entry for the end) */
+	public final int[] edgeOffsets;
+
+	/** the distinct vertices of each hyperedge, in occurrence order */
+	public final int[] edgeVertices;
+
+	/** the start of the hyperedges of each vertex in vertexEdges (one more entry for the end) */
+	public final int[] vertexOffsets;
+
+	/** the hyperedges of each vertex, in increasing order */
+	public final int[] vertexEdges;
+
+	/**
+	 * Constructor
+	 * @param occurrences the occurrences of a pattern
+	 */
+	public OccurrenceHypergraph(OccurrenceTable occurrences) {
+		int size = occurrences.size();
+		int columnCount = occurrences.getColumnCount();
+
+		// number the vertices in the iteration order of a HashMap
+		Map<Integer, Integer> numbers = new HashMap<>();
+		for (int row = 0; row < size; row++) {
+			for (int i = 0; i < columnCount; i++) {
+				numbers.putIfAbsent(occurrences.get(row, i), 0);
+			}
+		}
+		vertexIds = new int[numbers.size()];
+		int number = 0;
+		for (Map.Entry<Integer, Integer> entry : numbers.entrySet()) {
+			vertexIds[number] = entry.getKey();
+			entry.setValue(number++);
+		}
+
+		// the distinct vertices of each hyperedge (a backward edge repeats a vertex)
+		edgeOffsets = new int[size + 1];
+		int[] vertices = new int[size * columnCount];
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			edgeOffsets[row] = count;
+			for (int i = 0; i < columnCount; i++) {
+				int vertex = numbers.get(occurrences.get(row, i));
+				boolean repeated = false;
+				for (int j = edgeOffsets[row]; j < count && !repeated; j++) {
+					repeated = vertices[j] == vertex;
+				}
+				if (!repeated) {
+					vertices[count++] = vertex;
+				}
+			}
+		}
+		edgeOffsets[size] = count;
+		edgeVertices = count == vertices.length ? vertices : Arrays.copyOf(vertices, count);
+
+		vertexOffsets = new int[vertexIds.length + 1];
+		vertexEdges = indexEdges(edgeOffsets, edgeVertices, vertexOffsets);
+	}
+
+	/**
+	 * Constructor of the sub-hypergraph made of some hyperedges of a hypergraph. The vertices
+	 * keep their relative order, so that the greedy supports break their ties in the same way
+	 * on the sub-hypergraph.
+	 * @param parent the hypergraph
+	 * @param edges the hyperedges, in increasing order
+	 */
+	private OccurrenceHypergraph(OccurrenceHypergraph parent, int[] edges) {
+		// the vertices of the hyperedges, in increasing order
+		int[] numbers = new int[parent.getVertexCount()];
+		int[] vertices = new int[parent.getVertexCount()];
+		int vertexCount = 0;
+		int count = 0;
+		for (int e : edges) {
+			for (int j = parent.edgeOffsets[e]; j < parent.edgeOffsets[e + 1]; j++) {
+				int v = parent.edgeVertices[j];
+				if (numbers[v] == 0) {
+					numbers[v] = 1;
+					vertices[vertexCount++] = v;
+				}
+				count++;
+			}
+		}
+		Arrays.sort(vertices, 0, vertexCount);
+		vertexIds = new int[vertexCount];
+		for (int k = 0; k < vertexCount; k++) {
+			vertexIds[k] = parent.vertexIds[vertices[k]];
+			numbers[vertices[k]] = k;
+		}
+
+		edgeOffsets = new int[edges.length + 1];
+		edgeVertices = new int[count];
+		count = 0;
+		for (int i = 0; i < edges.length; i++) {
+			edgeOffsets[i] = count;
+			for (int j = parent.edgeOffsets[edges[i]]; j < parent.edgeOffsets[edges[i] + 1]; j++) {
+				edgeVertices[count++] = numbers[parent.edgeVertices[j]];
+			}
+		}
+		edgeOffsets[edges.length] = count;
+
+		vertexOffsets = new int[vertexCount + 1];
+		vertexEdges = indexEdges(edgeOffsets, edgeVertices, vertexOffsets);
+	}
+
+	/**
+	 * Build the hyperedges of each vertex from the vertices of each hyperedge
+	 * @param edgeOffsets the start of the vertices of each hyperedge
+	 * @param edgeVertices the vertices of each hyperedge
+	 * @param vertexOffsets filled with the start of the hyperedges of each vertex
+	 * @return the hyperedges of each vertex, in increasing order
+	 */
+	private static int[] indexEdges(int[] edgeOffsets, int[] edgeVertices, int[] vertexOffsets) {
+		int vertexCount = vertexOffsets.length - 1;
+		for (int v : edgeVertices) {
+			vertexOffsets[v + 1]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			vertexOffsets[v + 1] += vertexOffsets[v];
+		}
+		int[] vertexEdges = new int[edgeVertices.length];
+		int[] positions = Arrays.copyOf(vertexOffsets, vertexCount);
+		for (int e = 0; e + 1 < edgeOffsets.length; e++) {
+			for (int j = edgeOffsets[e]; j < edgeOffsets[e + 1]; j++) {
+				vertexEdges[positions[edgeVertices[j]]++] = e;
+			}
+		}
+		return vertexEdges;
+	}
+
+	/**
+	 * Split the hyperedges into connected components, two hyperedges being connected when
+	 * they share a vertex
+	 * @return the hyperedges of each component, in increasing order, the components being
+	 *         ordered by their first hyperedge
+	 */
+	public int[][] getComponents() {
+		int edgeCount = getEdgeCount();
+		int[] parents = new int[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			parents[e] = e;
+		}
+		for (int v = 0; v < getVertexCount(); v++) {
+			int root = find(parents, vertexEdges[vertexOffsets[v]]);
+			for (int i = vertexOffsets[v] + 1; i < vertexOffsets[v + 1]; i++) {
+				int r = find(parents, vertexEdges[i]);
+				// the smallest hyperedge of a component is its root
+				if (r < root) {
+					parents[root] = r;
+					root = r;
+				} else if (r > root) {
+					parents[r] = root;
+				}
+			}
+		}
+
+		int[] componentSizes = new int[edgeCount];
+		int componentCount = 0;
+		for (int e = 0; e < edgeCount; e++) {
+			if (componentSizes[find(parents, e)]++ == 0) {
+				componentCount++;
+			}
+		}
+		int[][] components = new int[componentCount][];
+		int[] numbers = new int[edgeCount];
+		componentCount = 0;
+		for (int e = 0; e < edgeCount; e++) {
+			int root = find(parents, e);
+			if (root == e) {
+				numbers[e] = componentCount;
+				components[componentCount++] = new int[componentSizes[e]];
+				componentSizes[e] = 0;
+			}
+			components[numbers[root]][componentSizes[root]++] = e;
+		}
+		return components;
+	}
+
+	/**
+	 * Get the sub-hypergraph made of some hyperedges, such as a connected component
+	 * @param edges the hyperedges, in increasing order
+	 * @return the sub-hypergraph, where the i-th hyperedge is edges[i]
+	 */
+	public OccurrenceHypergraph getSubHypergraph(int[] edges) {
+		return new OccurrenceHypergraph(this, edges);
+	}
+
+	/**
+	 * Find the root of a hyperedge in a union-find forest, with path halving
+	 * @param parents the parent of each hyperedge
+	 * @param e the hyperedge
+	 * @return the root
+	 */
+	private static int find(int[] parents, int e) {
+		while (parents[e] != e) {
+			parents[e] = parents[parents[e]];
+			e = parents[e];
+		}
+		return e;
+	}
+
+	/**
+	 * Get the number of vertices
+	 * @return the number of vertices
+	 */
+	public int getVertexCount() {
+		return vertexIds.length;
+	}
+
+	/**
+	 * Get the number of hyperedges, which is the number of occurrences
+	 * @return the number of hyperedges
+	 */
+	public int getEdgeCount() {
+		return edgeOffsets.length - 1;
+	}
+
+	/**
+	 * Get the number of hyperedges of a vertex
+	 * @param vertex a vertex of the hypergraph
+	 * @return its degree
+	 */
+	public int getDegree(int vertex) {
+		return vertexOffsets[vertex + 1] - vertexOffsets[vertex];
+	}
+}
@@ -0,0 +1,380 @@
+import java.util.Arrays;
+
+/**
+ * The occurrences of a pattern, stored by columns: the r-th occurrence is made of the
+ * vertices columns[0][r], columns[1][r], ... of the graph, one per position of the
+ * occurrence. This replaces a set of hyperedge objects, each one wrapping a list of
+ * boxed integers, by 4 bytes per vertex of an occurrence.
+ * <p>
+ * An occurrence that is equal to an occurrence already in the table is not added again.
+ * Each occurrence has a 64 bit fingerprint, computed from the fingerprint of its prefix
+ * when it extends an occurrence of a parent table. Occurrences are indexed by fingerprint
+ * in an open addressing table, and two occurrences with the same fingerprint are compared
+ * vertex by vertex, so distinct occurrences are never merged.
+ */
+public class OccurrenceTable {
+
+	/** the columns of the table */
+	private int[][] columns;
+
+	/** the number of occurrences */
+	private int size;
+
+	/** the fingerprint of each occurrence */
+	private long[] fingerprints;
+
+	/** open addressing index of the occurrences by fingerprint (position + 1, or 0 for an empty slot) */
+	private int[] slots;
+
+	/** the number of distinct vertices of each column, or null if not calculated */
+	private int[] imageCounts;
+
+	/** the position in the parent table of the prefix of each occurrence, or null if not known */
+	private int[] parentRows;
+
+	/** initial number of rows */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** the fingerprint of an empty occurrence */
+	static final long EMPTY_FINGERPRINT = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Constructor
+	 * @param columnCount the number of vertices of each occurrence
+	 */
+	public OccurrenceTable(int columnCount) {
+		columns = new int[columnCount][INITIAL_CAPACITY];
+		fingerprints = new long[INITIAL_CAPACITY];
+		slots = new int[INITIAL_CAPACITY * 2];
+	}
+
+	/**
+	 * Add an occurrence, if it is not already in the table
+	 * @param occurrence the vertices of the occurrence
+	 * @return true if it was added
+	 */
+	public boolean add(int... occurrence) {
+		long fingerprint = EMPTY_FINGERPRINT;
+		for (int i = 0; i < occurrence.length; i++) {
+			fingerprint = nextFingerprint(fingerprint, occurrence[i]);
+		}
+		for (int i = 0; i < occurrence.length; i++) {
+			columns[i][size] = occurrence[i];
+		}
+		return commit(fingerprint);
+	}
+
+	/**
+	 * Add an occurrence of another table, if it is not already in the table
+	 * @param other the other table, having as many columns as this table
+	 * @param row the position of the occurrence in the other table
+	 * @return true if it was added
+	 */
+	public boolean add(OccurrenceTable other, int row) {
+		for (int i = 0; i < columns.length; i++) {
+			columns[i][size] = other.columns[i][row];
+		}
+		return commit(other.fingerprints[row]);
+	}
+
+	/**
+	 * Add an occurrence made of an occurrence of another table followed by a vertex,
+	 * if it is not already in the table
+	 * @param parent the other table, having one column less than this table
+	 * @param row the position of the occurrence in the other table
+	 * @param vertex the vertex to add at the end of the occurrence
+	 * @return true if it was added
+	 */
+	public boolean add(OccurrenceTable parent, int row, int vertex) {
+		int last = parent.columns.length;
+		for (int i = 0; i < last; i++) {
+			columns[i][size] = parent.columns[i][row];
+		}
+		columns[last][size] = vertex;
+		if (parentRows == null) {
+			parentRows = new int[fingerprints.length];
+		}
+		parentRows[size] = row;
+		return commit(nextFingerprint(parent.fingerprints[row], vertex));
+	}
+
+	/**
+	 * Update the fingerprint of an occurrence for its next vertex. This is the SplitMix64
+	 * finalizer, a bijection on 64 bit values, so that the fingerprints of two occurrences
+	 * only collide by chance.
+	 * @param fingerprint the fingerprint of the previous vertices
+	 * @param vertex the vertex
+	 * @return the fingerprint
+	 */
+	static long nextFingerprint(long fingerprint, int vertex) {
+		long h = fingerprint + (vertex & 0xFFFFFFFFL) + EMPTY_FINGERPRINT;
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	/**
+	 * Keep the occurrence written at the position size(), unless an equal occurrence is
+	 * already in the table
+	 * @param fingerprint the fingerprint of the occurrence
+	 * @return true if it was kept
+	 */
+	private boolean commit(long fingerprint) {
+		int mask = slots.length - 1;
+		int slot = (int) fingerprint & mask;
+		while (slots[slot] != 0) {
+			int row = slots[slot] - 1;
+			if (fingerprints[row] == fingerprint && equalRows(row, size)) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = size + 1;
+		fingerprints[size++] = fingerprint;
+
+		if (size == fingerprints.length) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * Check if two occurrences of the table have the same vertices
+	 * @param row1 the position of the first occurrence
+	 * @param row2 the position of the second occurrence
+	 * @return true if they are equal
+	 */
+	private boolean equalRows(int row1, int row2) {
+		for (int[] column : columns) {
+			if (column[row1] != column[row2]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Double the capacity of the table, so that the next occurrence can be written at the
+	 * position size(), and rebuild the index
+	 */
+	private void grow() {
+		int capacity = size * 2;
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = Arrays.copyOf(columns[i], capacity);
+		}
+		fingerprints = Arrays.copyOf(fingerprints, capacity);
+		if (parentRows != null) {
+			parentRows = Arrays.copyOf(parentRows, capacity);
+		}
+		// keep the index at most half full
+		slots = new int[capacity * 2];
+		int mask = slots.length - 1;
+		for (int row = 0; row < size; row++) {
+			int slot = (int) fingerprints[row] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = row + 1;
+		}
+	}
+
+	/**
+	 * Get a vertex of an occurrence
+	 * @param row the position of the occurrence
+	 * @param column the position of the vertex in the occurrence
+	 * @return the vertex
+	 */
+	public int get(int row, int column) {
+		return columns[column][row];
+	}
+
+	/**
+	 * Get a column of the table. Only its first size() values are occurrences.
+	 * @param column the position of the column
+	 * @return the vertices at this position of all the occurrences
+	 */
+	public int[] getColumn(int column) {
+		return columns[column];
+	}
+
+	/**
+	 * Get the fingerprint of an occurrence
+	 * @param row the position of the occurrence
+	 * @return the fingerprint
+	 */
+	public long getFingerprint(int row) {
+		return fingerprints[row];
+	}
+
+	/**
+	 * Check if the occurrences were added as extensions of the occurrences of a parent table,
+	 * so that getParentRow() can be called
+	 * @return true if the parent rows are known
+	 */
+	public boolean hasParentRows() {
+		return parentRows != null;
+	}
+
+	/**
+	 * Get the position in the parent table of the occurrence extended by an occurrence
+	 * @param row the position of the occurrence
+	 * @return the position of its prefix in the parent table
+	 */
+	public int getParentRow(int row) {
+		return parentRows[row];
+	}
+
+	/**
+	 * Get the number of vertices of each occurrence
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * Get the number of occurrences
+	 * @return the number of occurrences
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the table has no occurrence
+	 * @return true if it is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the number of distinct vertices of each column, if it was calculated
+	 * @return the numbers, or null
+	 */
+	public int[] getImageCounts() {
+		return imageCounts;
+	}
+
+	/**
+	 * Set the number of distinct vertices of each column, once the table is complete
+	 * @param imageCounts the numbers, one per column
+	 */
+	public void setImageCounts(int[] imageCounts) {
+		this.imageCounts = imageCounts;
+	}
+
+	/**
+	 * Index the occurrences by their vertex at a position, so that the occurrences holding
+	 * a given vertex are found without scanning the table
+	 * @param column the position
+	 * @return the index, which is not updated by later additions to the table
+	 */
+	public ColumnIndex indexColumn(int column) {
+		return new ColumnIndex(columns[column], size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int row = 0; row < size; row++) {
+			for (int[] column : columns) {
+				sb.append(column[row]).append(" ");
+			}
+			sb.append("&");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The positions of the occurrences of a table grouped by their vertex at a position.
+	 * Within a group, the positions are in increasing order, which is the order in which the
+	 * occurrences were added to the table.
+	 */
+	public static class ColumnIndex {
+
+		/** the distinct vertices of the column, in increasing order */
+		private final int[] vertices;
+
+		/** the start of the group of each vertex in rows (one more entry for the end) */
+		private final int[] starts;
+
+		/** the positions of the occurrences, grouped by vertex */
+		private final int[] rows;
+
+		/**
+		 * Constructor
+		 * @param column a column of a table
+		 * @param size the number of occurrences of the table
+		 */
+		private ColumnIndex(int[] column, int size) {
+			// sort (vertex, position) pairs packed in a long
+			long[] keys = new long[size];
+			for (int row = 0; row < size; row++) {
+				keys[row] = ((long) column[row] << 32) | row;
+			}
+			Arrays.sort(keys);
+
+			rows = new int[size];
+			int[] groupVertices = new int[size];
+			int[] groupStarts = new int[size + 1];
+			int groupCount = 0;
+			for (int k = 0; k < size; k++) {
+				int vertex = (int) (keys[k] >> 32);
+				rows[k] = (int) keys[k];
+				if (groupCount == 0 || groupVertices[groupCount - 1] != vertex) {
+					groupVertices[groupCount] = vertex;
+					groupStarts[groupCount++] = k;
+				}
+			}
+			groupStarts[groupCount] = size;
+			vertices = Arrays.copyOf(groupVertices, groupCount);
+			starts = Arrays.copyOf(groupStarts, groupCount + 1);
+		}
+
+		/**
+		 * Get the number of groups, which is the number of distinct vertices of the column
+		 * @return the number of groups
+		 */
+		public int getGroupCount() {
+			return vertices.length;
+		}
+
+		/**
+		 * Find the group of the occurrences holding a vertex
+		 * @param vertex the vertex
+		 * @return the group, or -1 if no occurrence holds the vertex
+		 */
+		public int findGroup(int vertex) {
+			int group = Arrays.binarySearch(vertices, vertex);
+			return group < 0 ? -1 : group;
+		}
+
+		/**
+		 * Get the start of a group
+		 * @param group the group
+		 * @return the first value of k such that getRow(k) is in the group
+		 */
+		public int getGroupStart(int group) {
+			return starts[group];
+		}
+
+		/**
+		 * Get the end of a group
+		 * @param group the group
+		 * @return one more than the last value of k such that getRow(k) is in the group
+		 */
+		public int getGroupEnd(int group) {
+			return starts[group + 1];
+		}
+
+		/**
+		 * Get the position of an occurrence in the table
+		 * @param k the position of the occurrence in the index
+		 * @return its position in the table
+		 */
+		public int getRow(int k) {
+			return rows[k];
+		}
+	}
+}
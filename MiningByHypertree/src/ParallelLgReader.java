@@ -0,0 +1,394 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A reader of .lg files that parses the "v" and "e" records on all cores.
+ * <p>
+ * The file is split into byte ranges aligned on line boundaries. Each range is mapped
+ * and parsed directly from its bytes (no String is created), into primitive arrays
+ * that are then merged into a {@link CSRGraph}. The file must contain a single graph,
+ * as mining is done in a single graph.
+ */
+public class ParallelLgReader {
+
+	/** minimum size of a range, in bytes, so that small files are parsed by a single thread */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	/** maximum size of a range, in bytes, as a range is mapped as a single buffer */
+	private static final long MAX_CHUNK_SIZE = 1 << 30;
+
+	/** initial capacity of the arrays of a range */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Read a graph using all available cores
+	 * @param path the .lg file
+	 * @return the graph
+	 * @throws IOException if error while reading the file
+	 */
+	public static CSRGraph read(String path) throws IOException {
+		return read(path, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Read a graph
+	 * @param path the .lg file
+	 * @param threadCount the number of threads to use
+	 * @return the graph
+	 * @throws IOException if error while reading the file
+	 */
+	public static CSRGraph read(String path, int threadCount) throws IOException {
+		List<Chunk> chunks = new ArrayList<Chunk>();
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long chunkCount = Math.max(Math.min(threadCount, size / MIN_CHUNK_SIZE), size / MAX_CHUNK_SIZE + 1);
+
+			// split the file into ranges starting at the beginning of a line
+			long start = 0;
+			for (long i = 1; i <= chunkCount && start < size; i++) {
+				long end = i == chunkCount ? size : nextLineStart(channel, Math.max(start, size * i / chunkCount));
+				if (end > start) {
+					chunks.add(new Chunk(path, start, channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+				}
+				start = end;
+			}
+		}
+
+		// parse the ranges in parallel
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, chunks.size())));
+		try {
+			for (Future<Chunk> future : executor.invokeAll(chunks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while reading " + path, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("error while reading " + path, e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+
+		return merge(path, chunks);
+	}
+
+	/**
+	 * Find the first line starting at or after a position
+	 * @param channel the file
+	 * @param position a position in the file
+	 * @return the position of the start of the line, or the file size
+	 * @throws IOException if error while reading the file
+	 */
+	private static long nextLineStart(FileChannel channel, long position) throws IOException {
+		if (position == 0) {
+			return 0;
+		}
+		// the line starts after the previous line feed
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long current = position - 1;
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, current);
+			if (read <= 0) {
+				return channel.size();
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return current + i + 1;
+				}
+			}
+			current += read;
+		}
+	}
+
+	/**
+	 * Merge the records of all ranges into a graph
+	 * @param path the .lg file
+	 * @param chunks the parsed ranges, in file order
+	 * @return the graph
+	 * @throws IOException if the file contains more than one graph, or an edge between
+	 *                     undefined vertices
+	 */
+	private static CSRGraph merge(String path, List<Chunk> chunks) throws IOException {
+		int graphId = 0;
+		int graphCount = 0;
+		int maxVertexId = -1;
+		int edgeCount = 0;
+		for (Chunk chunk : chunks) {
+			if (chunk.graphCount > 0) {
+				graphId = chunk.graphId;
+			}
+			graphCount += chunk.graphCount;
+			maxVertexId = Math.max(maxVertexId, chunk.maxVertexId);
+			edgeCount += chunk.edgeCount;
+		}
+		if (graphCount > 1) {
+			throw new IOException(path + " contains " + graphCount + " graphs, but only one is supported");
+		}
+
+		int[] vertexLabels = new int[maxVertexId + 1];
+		Arrays.fill(vertexLabels, CSRGraph.NO_VERTEX);
+		int[] edgeV1 = new int[edgeCount];
+		int[] edgeV2 = new int[edgeCount];
+		int[] edgeLabels = new int[edgeCount];
+		int position = 0;
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.vertexCount; i++) {
+				vertexLabels[chunk.vertexIds[i]] = chunk.vertexLabels[i];
+			}
+		}
+		// an edge may come before the "v" record of its vertices, in an earlier range
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.edgeCount; i++) {
+				checkEndpoint(path, chunk.edgeV1[i], vertexLabels, chunk, i);
+				checkEndpoint(path, chunk.edgeV2[i], vertexLabels, chunk, i);
+			}
+			System.arraycopy(chunk.edgeV1, 0, edgeV1, position, chunk.edgeCount);
+			System.arraycopy(chunk.edgeV2, 0, edgeV2, position, chunk.edgeCount);
+			System.arraycopy(chunk.edgeLabels, 0, edgeLabels, position, chunk.edgeCount);
+			position += chunk.edgeCount;
+		}
+
+		return new CSRGraph(graphId, vertexLabels, edgeV1, edgeV2, edgeLabels, edgeCount);
+	}
+
+	/**
+	 * Check that an endpoint of an edge is a vertex defined by a "v" record
+	 * @param path the .lg file
+	 * @param vertex the endpoint
+	 * @param vertexLabels the label of each vertex, or NO_VERTEX for undefined ids
+	 * @param chunk the range of the edge
+	 * @param edge the position of the edge in the range
+	 * @throws IOException if the vertex is not defined
+	 */
+	private static void checkEndpoint(String path, int vertex, int[] vertexLabels, Chunk chunk, int edge)
+			throws IOException {
+		if (vertex >= vertexLabels.length || vertexLabels[vertex] == CSRGraph.NO_VERTEX) {
+			throw new IOException(path + " is corrupted: the edge " + chunk.edgeV1[edge] + " " + chunk.edgeV2[edge]
+					+ " uses the undefined vertex " + vertex);
+		}
+	}
+
+	/**
+	 * A range of the file and the records parsed from it
+	 */
+	private static class Chunk implements Callable<Chunk> {
+
+		/** the .lg file */
+		private final String path;
+
+		/** the position of the range in the file */
+		private final long offset;
+
+		/** the bytes of the range */
+		private final MappedByteBuffer bytes;
+
+		/** the current position in the range */
+		private int position;
+
+		/** the id of the graph, if a "t" record was found */
+		int graphId;
+
+		/** the number of "t" records found */
+		int graphCount;
+
+		/** the vertex records */
+		int[] vertexIds = new int[INITIAL_CAPACITY];
+		int[] vertexLabels = new int[INITIAL_CAPACITY];
+		int vertexCount;
+		int maxVertexId = -1;
+
+		/** the edge records */
+		int[] edgeV1 = new int[INITIAL_CAPACITY];
+		int[] edgeV2 = new int[INITIAL_CAPACITY];
+		int[] edgeLabels = new int[INITIAL_CAPACITY];
+		int edgeCount;
+
+		/**
+		 * Constructor
+		 * @param path the .lg file
+		 * @param offset the position of the range in the file
+		 * @param bytes the bytes of the range, starting at the beginning of a line
+		 */
+		Chunk(String path, long offset, MappedByteBuffer bytes) {
+			this.path = path;
+			this.offset = offset;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public Chunk call() throws IOException {
+			int limit = bytes.limit();
+			while (position < limit) {
+				// skip blank lines and indentation before the record type
+				byte type = bytes.get(position++);
+				if (type == ' ' || type == '\t' || type == '\r' || type == '\n') {
+					continue;
+				}
+				if (type == 'v') {
+					int id = readVertexId();
+					int label = readInt();
+					if (vertexCount == vertexIds.length) {
+						vertexIds = Arrays.copyOf(vertexIds, vertexCount * 2);
+						vertexLabels = Arrays.copyOf(vertexLabels, vertexCount * 2);
+					}
+					vertexIds[vertexCount] = id;
+					vertexLabels[vertexCount++] = label;
+					maxVertexId = Math.max(maxVertexId, id);
+				} else if (type == 'e') {
+					if (edgeCount == edgeV1.length) {
+						edgeV1 = Arrays.copyOf(edgeV1, edgeCount * 2);
+						edgeV2 = Arrays.copyOf(edgeV2, edgeCount * 2);
+						edgeLabels = Arrays.copyOf(edgeLabels, edgeCount * 2);
+					}
+					edgeV1[edgeCount] = readVertexId();
+					edgeV2[edgeCount] = readVertexId();
+					edgeLabels[edgeCount++] = readLabel();
+				} else if (type == 't') {
+					// "t # id"
+					skipSpaces();
+					position++;
+					graphId = readInt();
+					graphCount++;
+				}
+				skipLine();
+			}
+			return this;
+		}
+
+		/**
+		 * Skip the spaces and tabs at the current position
+		 */
+		private void skipSpaces() {
+			while (position < bytes.limit()) {
+				byte b = bytes.get(position);
+				if (b != ' ' && b != '\t') {
+					return;
+				}
+				position++;
+			}
+		}
+
+		/**
+		 * Move to the start of the next line
+		 */
+		private void skipLine() {
+			while (position < bytes.limit() && bytes.get(position++) != '\n') {
+			}
+		}
+
+		/**
+		 * Read a vertex id, after skipping spaces
+		 * @return the id
+		 * @throws IOException if there is no id at the current position, or if it is negative
+		 */
+		private int readVertexId() throws IOException {
+			skipSpaces();
+			int start = position;
+			int id = readInt();
+			if (id < 0) {
+				throw new IOException(path + " is corrupted: negative vertex id " + id + " at byte " + (offset + start));
+			}
+			return id;
+		}
+
+		/**
+		 * Read an integer, after skipping spaces
+		 * @return the integer
+		 * @throws IOException if there is no integer at the current position, or if it is
+		 *                     outside the int range
+		 */
+		private int readInt() throws IOException {
+			skipSpaces();
+			boolean negative = position < bytes.limit() && bytes.get(position) == '-';
+			if (negative) {
+				position++;
+			}
+			long max = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+			int start = position;
+			long value = 0;
+			while (position < bytes.limit()) {
+				int digit = bytes.get(position) - '0';
+				if (digit < 0 || digit > 9) {
+					break;
+				}
+				value = value * 10 + digit;
+				if (value > max) {
+					throw new IOException(path + " is corrupted: integer out of range at byte " + (offset + start));
+				}
+				position++;
+			}
+			if (position == start) {
+				throw new IOException(path + " is corrupted: integer expected at byte " + (offset + position));
+			}
+			return (int) (negative ? -value : value);
+		}
+
+		/**
+		 * Read an edge label written as a decimal number, after skipping spaces.
+		 * Like (int) Double.parseDouble(), the fractional part is truncated.
+		 * A plain decimal number is converted directly, and any other token (".5", "-.5",
+		 * "1e3", a value beyond the int range...) is parsed with Double.parseDouble().
+		 * @return the label
+		 * @throws IOException if there is no number at the current position
+		 */
+		private int readLabel() throws IOException {
+			skipSpaces();
+			int start = position;
+			boolean negative = position < bytes.limit() && bytes.get(position) == '-';
+			if (negative) {
+				position++;
+			}
+			int digitStart = position;
+			int value = 0;
+			while (position < bytes.limit()) {
+				int digit = bytes.get(position) - '0';
+				if (digit < 0 || digit > 9) {
+					break;
+				}
+				value = value * 10 + digit;
+				position++;
+			}
+			int digitCount = position - digitStart;
+			if (position < bytes.limit() && bytes.get(position) == '.') {
+				position++;
+				while (position < bytes.limit() && bytes.get(position) >= '0' && bytes.get(position) <= '9') {
+					position++;
+				}
+			}
+			// 9 digits cannot overflow an int
+			if (digitCount > 0 && digitCount <= 9 && (position == bytes.limit() || bytes.get(position) <= ' ')) {
+				return negative ? -value : value;
+			}
+
+			// otherwise parse the whole token as a double
+			while (position < bytes.limit() && bytes.get(position) > ' ') {
+				position++;
+			}
+			byte[] token = new byte[position - start];
+			for (int i = 0; i < token.length; i++) {
+				token[i] = bytes.get(start + i);
+			}
+			try {
+				return (int) Double.parseDouble(new String(token, "US-ASCII"));
+			} catch (NumberFormatException e) {
+				throw new IOException(path + " is corrupted: number expected at byte " + (offset + start));
+			}
+		}
+	}
+}
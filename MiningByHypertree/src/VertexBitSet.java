@@ -0,0 +1,88 @@
+import java.util.Arrays;
+
+/**
+ * A set of vertex ids stored as a bitset, meant to be reused for counting the distinct
+ * vertices of many small collections.
+ * <p>
+ * The words that were set since the last call to clear() are remembered, so that clearing
+ * only resets those words: counting the distinct values of a column of k vertices costs
+ * O(k), whatever the number of vertices of the graph, and allocates nothing once the
+ * bitset is large enough.
+ */
+public class VertexBitSet {
+
+	/** the bits, one per vertex id */
+	private long[] words;
+
+	/** the positions of the words that are not zero */
+	private int[] touched;
+
+	/** the number of words that are not zero */
+	private int touchedCount;
+
+	/** the number of vertices in the set */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param vertexCount the number of vertex ids (the set grows if larger ids are added)
+	 */
+	public VertexBitSet(int vertexCount) {
+		words = new long[Math.max(1, (vertexCount + 63) >>> 6)];
+		touched = new int[words.length];
+	}
+
+	/**
+	 * Add a vertex to the set
+	 * @param vertex the vertex id
+	 * @return true if the vertex was not already in the set
+	 */
+	public boolean add(int vertex) {
+		int word = vertex >>> 6;
+		if (word >= words.length) {
+			int length = Math.max(word + 1, words.length * 2);
+			words = Arrays.copyOf(words, length);
+			touched = Arrays.copyOf(touched, length);
+		}
+		long bit = 1L << vertex;
+		long value = words[word];
+		if ((value & bit) != 0) {
+			return false;
+		}
+		if (value == 0) {
+			touched[touchedCount++] = word;
+		}
+		words[word] = value | bit;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Check if a vertex is in the set
+	 * @param vertex the vertex id
+	 * @return true if it is in the set
+	 */
+	public boolean contains(int vertex) {
+		int word = vertex >>> 6;
+		return word < words.length && (words[word] & (1L << vertex)) != 0;
+	}
+
+	/**
+	 * Get the number of vertices in the set
+	 * @return the number of vertices
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all the vertices, by resetting only the words that were set
+	 */
+	public void clear() {
+		for (int i = 0; i < touchedCount; i++) {
+			words[touched[i]] = 0;
+		}
+		touchedCount = 0;
+		size = 0;
+	}
+}